@@ -1,9 +1,22 @@
 package DesignPatterns;
 
 import animals.Animal;
-import graphics.ZooPanel;
+import simulation.IWorld;
 
 
 public interface AbstractZooFactory {
-    Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, ZooPanel pan);
+    Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, IWorld pan);
+
+    /**
+     * Getter method for the factory of a species
+     * @param name is the name of the animal (Lion, Bear, Elephant, Giraffe or Turtle)
+     * @return The factory that creates this animal
+     */
+    static AbstractZooFactory of(String name) {
+        return switch (name) {
+            case "Lion" -> new CarnivoreFactory();
+            case "Bear" -> new OmnivoreFactory();
+            default -> new HerbivoreFactory();
+        };
+    }
 }
\ No newline at end of file
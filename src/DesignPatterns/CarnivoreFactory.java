@@ -2,12 +2,12 @@ package DesignPatterns;
 
 import animals.Animal;
 import animals.Lion;
-import graphics.ZooPanel;
+import simulation.IWorld;
 
 
 public class CarnivoreFactory implements AbstractZooFactory{
     @Override
-    public Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, ZooPanel pan) {
+    public Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, IWorld pan) {
         if(name.equals("Lion"))
             return new Lion(animalSize, horizontalspeed, verticalspeed, animalcolor, pan);
         else
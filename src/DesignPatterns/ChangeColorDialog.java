@@ -8,7 +8,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import simulation.AnimalRegistry;
+
 import java.util.ArrayList;
+import java.util.List;
 
 public class ChangeColorDialog extends JDialog {
     private ZooPanel zoopanel;
@@ -19,12 +22,11 @@ public class ChangeColorDialog extends JDialog {
      * Constructor of the JDialog ChangeColorDialog : it sets the attributes of the JDialog
      * Note : Change the color of an animals in the zoo according to the user's choice
      *
-     * @param Animallist  A ArrayList<Animal> that represent the animals in the zoo
+     * @param Animallist  A AnimalRegistry that represent the animals in the zoo
      * @param zoopanel A Zoopanel that represent the parent panel of the JDialog
      */
-    public ChangeColorDialog(ZooPanel zoopanel, ArrayList<Animal> Animallist){
-        for (int i = 0; i < Animallist.size(); i++)
-            Animallist.get(i).setSuspended();
+    public ChangeColorDialog(ZooPanel zoopanel, AnimalRegistry Animallist){
+        zoopanel.getPauseControl().pause();
         this.setTitle("Change Color Of An Animal");
         this.setSize(500,325);
         this.setVisible(true);
@@ -43,8 +45,7 @@ public class ChangeColorDialog extends JDialog {
                 if (result == JOptionPane.OK_OPTION) {
                     setDefaultCloseOperation(
                             JFrame.DISPOSE_ON_CLOSE);
-                    for (int i = 0; i < Animallist.size(); i++)
-                        Animallist.get(i).setResumed();
+                    zoopanel.getPauseControl().resume();
                     zoopanel.getF().setEnabled(true);
                     dispose();
                 }
@@ -53,9 +54,12 @@ public class ChangeColorDialog extends JDialog {
 
         JComboBox<String> allanimalsCombo = new JComboBox();
         DefaultComboBoxModel modele= new DefaultComboBoxModel();
+        List<Animal> choices = new ArrayList<Animal>();
         for (Animal animal : Animallist) {
-            if(animal.getisalive())
+            if(animal.getisalive()) {
+                choices.add(animal);
                 modele.addElement(animal.getanimal());
+            }
         }
         allanimalsCombo.setModel(modele);
         TitledBorder animalChoiceBorder = BorderFactory.createTitledBorder("Choose Animal: ");
@@ -73,10 +77,9 @@ public class ChangeColorDialog extends JDialog {
         jButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                AnimalColorDecorator decorator = new AnimalColorDecorator(Animallist.get(allanimalsCombo.getSelectedIndex()));
+                AnimalColorDecorator decorator = new AnimalColorDecorator(choices.get(allanimalsCombo.getSelectedIndex()));
                 decorator.PaintAnimal(animalcolorsCombo.getItemAt(animalcolorsCombo.getSelectedIndex()));
-                for (int i = 0; i < Animallist.size(); i++)
-                    Animallist.get(i).setResumed();
+                zoopanel.getPauseControl().resume();
                 JOptionPane.showMessageDialog(zoopanel, "Color changed", "Message", JOptionPane.INFORMATION_MESSAGE);
                 zoopanel.getF().setEnabled(true);
                 dispose();
@@ -0,0 +1,119 @@
+package DesignPatterns;
+
+import mobility.Mobile;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A lock-free bus of the movement events of the zoo
+ * Note : a mobile object is queued at most once until the next drain, so thousands of moves between two
+ * drains are coalesced into one interaction pass.
+ * The events are kept in a bounded ring buffer so that posting allocates nothing, the few events that do not
+ * fit in a full ring go to an overflow queue
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see ZooController
+ */
+public class EventBus {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private final int mask;
+    private final Mobile[] slots;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail;
+    private final ConcurrentLinkedQueue<Mobile> overflow;
+    private long head;
+
+
+    /**
+     * The constructor of the EventBus object, sets the attributes of the object
+     */
+    public EventBus() {this(DEFAULT_CAPACITY);}
+
+    /**
+     * The constructor of the EventBus object, sets the attributes of the object
+     *
+     * @param capacity is the number of events the ring buffer can hold (rounded up to a power of two)
+     */
+    public EventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new Mobile[size];
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequence.set(i, i);
+        this.tail = new AtomicLong();
+        this.overflow = new ConcurrentLinkedQueue<Mobile>();
+        this.head = 0;
+    }
+
+
+    /**
+     * Post the event "this object moved", nothing is queued if the object already has a pending event
+     *
+     * @param mobile is the Mobile object that moved
+     */
+    public void post(Mobile mobile) {
+        if (mobile.markPending() && !offer(mobile))
+            overflow.offer(mobile);
+    }
+
+
+    /**
+     * Put an event in the ring buffer
+     *
+     * @param mobile is the Mobile object that moved
+     * @return True if the event was queued, False if the ring buffer was full
+     */
+    private boolean offer(Mobile mobile) {
+        long pos = tail.get();
+        int idx;
+        while (true) {
+            idx = (int) (pos & mask);
+            long dif = sequence.get(idx) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1))
+                    break;
+                pos = tail.get();
+            } else if (dif < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        slots[idx] = mobile;
+        sequence.lazySet(idx, pos + 1);
+        return true;
+    }
+
+
+    /**
+     * Take all the pending events
+     * Note : only one thread drains the bus at a time
+     *
+     * @return The number of objects that moved since the last drain
+     */
+    public synchronized int drain() {
+        int count = 0;
+        while (true) {
+            int idx = (int) (head & mask);
+            if (sequence.get(idx) != head + 1)
+                break;
+            Mobile mobile = slots[idx];
+            slots[idx] = null;
+            sequence.lazySet(idx, head + mask + 1);
+            head++;
+            mobile.clearPending();
+            count++;
+        }
+        Mobile mobile;
+        while ((mobile = overflow.poll()) != null) {
+            mobile.clearPending();
+            count++;
+        }
+        return count;
+    }
+}
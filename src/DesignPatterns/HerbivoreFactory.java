@@ -2,13 +2,13 @@ package DesignPatterns;
 
 import animals.Animal;
 import animals.*;
-import graphics.ZooPanel;
+import simulation.IWorld;
 
 
 
 public class HerbivoreFactory implements AbstractZooFactory{
     @Override
-    public Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, ZooPanel pan) {
+    public Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, IWorld pan) {
         return switch (name) {
             case "Elephant" -> new Elephant(animalSize, horizontalspeed, verticalspeed, animalcolor, pan);
             case "Giraffe" -> new Giraffe(animalSize, horizontalspeed, verticalspeed, animalcolor, pan);
@@ -2,11 +2,11 @@ package DesignPatterns;
 
 import animals.Animal;
 import animals.Bear;
-import graphics.ZooPanel;
+import simulation.IWorld;
 
 public class OmnivoreFactory implements AbstractZooFactory{
     @Override
-    public Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, ZooPanel pan) {
+    public Animal createAnimal(String name, int animalSize, int horizontalspeed, int verticalspeed, String animalcolor, IWorld pan) {
         if(name.equals("Bear"))
             return new Bear(animalSize, horizontalspeed, verticalspeed, animalcolor, pan);
         else
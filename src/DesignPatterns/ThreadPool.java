@@ -5,16 +5,30 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import animals.*;
+import simulation.SimulationConfig;
+import simulation.SimulationConfig.ExecutorMode;
 
 public class ThreadPool {
-    private Executor executor;
+    private volatile Executor executor;
+    private final ExecutorMode mode;
     final int NUMBER_OF_ANIMALS = 10;
 
     public ThreadPool(){
-        // Execute ten threads simultaneously
-        executor = Executors.newFixedThreadPool (NUMBER_OF_ANIMALS);
+        this(SimulationConfig.getExecutorMode());
     }
+
+    public ThreadPool(ExecutorMode mode){
+        this.mode = mode;
+        executor = create();
+    }
+
+    /**
+     * Run the loop of an animal in the pool
+     * Note : a sleeping animal gives back its thread and is put in the pool again when it wakes up
+     * @param animal is the Animal to run
+     */
     public void addtopoll(Animal animal){
+        animal.setScheduler(task -> executor.execute(task));
         executor.execute(animal);
     }
 
@@ -24,6 +38,33 @@ public class ThreadPool {
 
     public void restart(){
         ((ExecutorService) executor).shutdownNow();
-        executor = Executors.newFixedThreadPool (NUMBER_OF_ANIMALS);
+        executor = create();
+    }
+
+    /**
+     * Check if the number of animals that move at the same time is limited
+     * @return True if the pool has a fixed number of threads, else False
+     */
+    public boolean isBounded(){return mode == ExecutorMode.FIXED;}
+
+    public ExecutorMode getMode(){return mode;}
+
+    private ExecutorService create(){
+        switch (mode) {
+            case CACHED:
+                return Executors.newCachedThreadPool();
+            case VIRTUAL:
+                // Virtual threads exist since Java 21, the project still builds with Java 17
+                try {
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                }
+                catch (ReflectiveOperationException e) {
+                    System.out.println("Virtual threads are not available, one platform thread per animal is used");
+                    return Executors.newCachedThreadPool();
+                }
+            default:
+                // Execute ten threads simultaneously
+                return Executors.newFixedThreadPool (NUMBER_OF_ANIMALS);
+        }
     }
 }
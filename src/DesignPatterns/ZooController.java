@@ -1,15 +1,43 @@
 package DesignPatterns;
 
-import graphics.ZooFrame;
-import graphics.ZooPanel;
-import java.util.Observable;
-import java.util.Observer;
+import simulation.IWorld;
+import simulation.SimulationConfig;
 
-public class ZooController extends Thread implements Observer {
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+public class ZooController extends Thread {
+    private final IWorld world;
+    private final EventBus bus;
+
+    public ZooController(IWorld world){
+        super("zoo-controller");
+        this.world = world;
+        this.bus = new EventBus();
+        this.setDaemon(true);
+    }
+
+    /**
+     * Getter method for the attribute bus
+     * @return The bus the animals post their moves to
+     */
+    public EventBus getEventBus(){return bus;}
+
+    /**
+     * Drain the moves once per tick and check the interactions once for the whole batch
+     * Note : used in legacy mode, in tick mode the engine drains the bus itself.
+     * The clock of the world goes forward at every period, so the logged events have a tick in both modes
+     */
     @Override
-    public void update(Observable arg0, Object arg1) {
-        synchronized (this){
-        ZooPanel.getInstance(ZooFrame.getInstance()).manageZoo();}
+    public void run() {
+        long tickNanos = TimeUnit.SECONDS.toNanos(1) / SimulationConfig.getTicksPerSecond();
+        while (!isInterrupted()) {
+            LockSupport.parkNanos(tickNanos);
+            if (bus.drain() > 0) {
+                world.manageZoo();
+                world.publish();
+            }
+            world.getClock().advance();
+        }
     }
 }
@@ -0,0 +1,385 @@
+package DesignPatterns;
+
+import animals.Animal;
+import animals.AnimalState;
+import mobility.Point;
+import plants.Cabbage;
+import plants.Plant;
+import plants.Lettuce;
+import privateutil.Meat;
+import simulation.EntityStore;
+import simulation.FoodIndex;
+import simulation.IWorld;
+import simulation.PauseControl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * A binary save file of the zoo, written and read through a memory-mapped file
+ * Note : the file is a header followed by one fixed-size record per animal, so a record is read only when it is
+ * asked for and a loaded zoo does not build every animal up front : the numbers of all the animals are copied in
+ * an entity store at once, and an animal is built as a view onto its entity when it is needed
+ * Layout of the header (64 bytes) : magic, version, number of animals, background, plant type, meat flag,
+ * world paused flag, paused species (one bit per species), plant x, plant y, meat x, meat y, world width,
+ * world height, number of paused regions, epoch of the pauses, number of food items
+ * Layout of a record (48 bytes) : id, species, color, asleep flag, x, y, horSpeed, verSpeed, size, eatCount, weight
+ * The paused regions follow the records (20 bytes each) : id, x, y, width, height
+ * The food items added besides the plant and the meat follow the regions (12 bytes each) : type, x, y
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see ZooMemento
+ */
+public class ZooFile {
+    public static final int MAGIC = 0x5A4F4F31;
+    public static final int VERSION = 4;
+    public static final int REGION_BYTES = 20;
+    public static final int FOOD_BYTES = 12;
+    public static final int HEADER_BYTES = 64;
+    public static final int RECORD_BYTES = 48;
+    public static final int NO_PLANT = 0, LETTUCE = 1, CABBAGE = 2, MEAT = 3;
+    private static final String[] SPECIES = {"Lion", "Bear", "Elephant", "Giraffe", "Turtle"};
+    private static final String[] COLORS = {"Natural", "Red", "Blue"};
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int foodAt;
+
+
+    /**
+     * A food item of a saved zoo : its type (LETTUCE, CABBAGE or MEAT) and its location
+     *
+     * @param type is the type of the food
+     * @param x is the location on axis X
+     * @param y is the location on axis Y
+     */
+    public record Food(int type, int x, int y) {
+
+        /**
+         * Save a food item of a FoodIndex
+         * @param item is the Item of the food
+         * @return The saved Food
+         */
+        public static Food of(FoodIndex.Item item) {
+            int type = item.food() instanceof Cabbage ? CABBAGE : item.food() instanceof Plant ? LETTUCE : MEAT;
+            return new Food(type, item.x(), item.y());
+        }
+
+        /**
+         * Put a new food of this type at this location in a world
+         * @param world is the IWorld that receives the food
+         */
+        public void addTo(IWorld world) {
+            Point at = new Point(x, y);
+            switch (type) {
+                case LETTUCE -> world.addFood(new Lettuce(world, at));
+                case CABBAGE -> world.addFood(new Cabbage(world, at));
+                default -> world.addFood(new Meat(world, at));
+            }
+        }
+    }
+
+
+    /**
+     * Constructor of the object ZooFile : it checks the header of a mapped file and the codes of the records
+     *
+     * @param buffer is the mapped content of the file
+     * @throws IOException if the file is not a save file of the zoo
+     */
+    private ZooFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a zoo file");
+        if (buffer.getInt(4) != VERSION)
+            throw new IOException("Unsupported zoo file version " + buffer.getInt(4));
+        this.count = buffer.getInt(8);
+        int regions = buffer.getInt(44), food = buffer.getInt(56);
+        long foodAt = HEADER_BYTES + (long) count * RECORD_BYTES + (long) regions * REGION_BYTES;
+        if (count < 0 || regions < 0 || food < 0 || foodAt + (long) food * FOOD_BYTES > buffer.capacity())
+            throw new IOException("Truncated zoo file");
+        this.foodAt = (int) foodAt;
+        for (int i = 0, at = HEADER_BYTES; i < count; i++, at += RECORD_BYTES) {
+            speciesName(buffer.get(at + 8));
+            colorName(buffer.get(at + 9));
+        }
+        for (int i = 0, at = this.foodAt; i < food; i++, at += FOOD_BYTES)
+            if (buffer.getInt(at) < LETTUCE || buffer.getInt(at) > MEAT)
+                throw new IOException("Corrupted zoo file");
+    }
+
+
+    /**
+     * Write the state of the zoo in a file
+     *
+     * @param file is the File to write, it is replaced if it exists
+     * @param animals is the List of the animals of the zoo
+     * @param meat is the meat of the zoo, or null
+     * @param plant is the plant of the zoo, or null
+     * @param food is the List of the other food items of the zoo
+     * @param background is the background of the zoo
+     * @param width is the width of the world of the zoo
+     * @param height is the height of the world of the zoo
+     * @param pauses are the Rules of the pauses of the zoo
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, List<Animal> animals, Meat meat, Plant plant, List<Food> food, int background,
+                             int width, int height, PauseControl.Rules pauses) throws IOException {
+        int n = animals.size();
+        int[][] regions = pauses.getRegions();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) n * RECORD_BYTES + (long) regions.length * REGION_BYTES + (long) food.size() * FOOD_BYTES);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(0, MAGIC);
+            out.putInt(4, VERSION);
+            out.putInt(8, n);
+            out.putInt(12, background);
+            out.put(16, (byte) (plant == null ? NO_PLANT : plant instanceof Cabbage ? CABBAGE : LETTUCE));
+            out.put(17, (byte) (meat == null ? 0 : 1));
+            if (plant != null) {
+                out.putInt(20, plant.getLocation().getx());
+                out.putInt(24, plant.getLocation().gety());
+            }
+            if (meat != null) {
+                out.putInt(28, meat.getLocation().getx());
+                out.putInt(32, meat.getLocation().gety());
+            }
+            out.put(18, (byte) (pauses.isAll() ? 1 : 0));
+            int species = 0;
+            for (String name : pauses.getSpecies())
+                species |= 1 << codeOf(SPECIES, name);
+            out.put(19, (byte) species);
+            out.putInt(36, width);
+            out.putInt(40, height);
+            out.putInt(44, regions.length);
+            out.putLong(48, pauses.getEpoch());
+            out.putInt(56, food.size());
+            int at = HEADER_BYTES;
+            for (Animal animal : animals) {
+                long p = animal.getPosition();
+                out.putLong(at, animal.getId());
+                out.put(at + 8, (byte) codeOf(SPECIES, animal.getAnimalName()));
+                out.put(at + 9, (byte) codeOf(COLORS, animal.getColor()));
+                out.put(at + 10, (byte) (animal.getThreadSuspended() ? 1 : 0));
+                out.putInt(at + 12, Point.unpackX(p));
+                out.putInt(at + 16, Point.unpackY(p));
+                out.putInt(at + 20, animal.getHorSpeed());
+                out.putInt(at + 24, animal.getVerSpeed());
+                out.putInt(at + 28, animal.getSize());
+                out.putInt(at + 32, animal.getEatCount());
+                out.putDouble(at + 36, animal.getWeight());
+                at += RECORD_BYTES;
+            }
+            for (int[] region : regions) {
+                for (int k = 0; k < region.length; k++)
+                    out.putInt(at + k * Integer.BYTES, region[k]);
+                at += REGION_BYTES;
+            }
+            for (Food item : food) {
+                out.putInt(at, item.type());
+                out.putInt(at + 4, item.x());
+                out.putInt(at + 8, item.y());
+                at += FOOD_BYTES;
+            }
+            out.force();
+        }
+    }
+
+    /**
+     * Open a save file of the zoo
+     * Note : only the header is read, the animals are read when they are asked for
+     *
+     * @param file is the File to read
+     * @return The opened ZooFile
+     * @throws IOException if the file cannot be read or is not a save file of the zoo
+     */
+    public static ZooFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            return new ZooFile(in);
+        }
+    }
+
+    /**
+     * Get the code of a species in the files of the zoo
+     *
+     * @param name is the name of the species
+     * @return The code of the species
+     */
+    public static int speciesCode(String name) {return indexOf(SPECIES, name);}
+
+    /**
+     * Get the species of a code in the files of the zoo
+     *
+     * @param code is the code of the species
+     * @return The name of the species
+     * @throws IOException if the code is not a species
+     */
+    public static String speciesName(int code) throws IOException {return valueOf(SPECIES, code);}
+
+    /**
+     * Get the code of a color in the files of the zoo
+     *
+     * @param color is the name of the color
+     * @return The code of the color
+     */
+    public static int colorCode(String color) {return indexOf(COLORS, color);}
+
+    /**
+     * Get the color of a code in the files of the zoo
+     *
+     * @param code is the code of the color
+     * @return The name of the color
+     * @throws IOException if the code is not a color
+     */
+    public static String colorName(int code) throws IOException {return valueOf(COLORS, code);}
+
+    private static int indexOf(String[] table, String value) {
+        for (int i = 0; i < table.length; i++)
+            if (table[i].equals(value))
+                return i;
+        throw new IllegalArgumentException("Cannot save " + value);
+    }
+
+    private static int codeOf(String[] table, String value) throws IOException {
+        for (int i = 0; i < table.length; i++)
+            if (table[i].equals(value))
+                return i;
+        throw new IOException("Cannot save " + value);
+    }
+
+    private static String valueOf(String[] table, int index) throws IOException {
+        if (index < 0 || index >= table.length)
+            throw new IOException("Corrupted zoo file");
+        return table[index];
+    }
+
+    /**
+     * Getter method for the number of animals in the file
+     * @return The number of animals
+     */
+    public int size() {return count;}
+
+    /**
+     * Read the state of one animal of the file
+     *
+     * @param index is the index of the animal, between 0 and size()
+     * @return The AnimalState of the animal
+     * @throws IOException if the record is corrupted
+     */
+    public AnimalState getState(int index) throws IOException {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException(index);
+        int at = HEADER_BYTES + index * RECORD_BYTES;
+        return new AnimalState(buffer.getLong(at), speciesName(buffer.get(at + 8)),
+                colorName(buffer.get(at + 9)), buffer.getInt(at + 12), buffer.getInt(at + 16),
+                buffer.getInt(at + 20), buffer.getInt(at + 24), buffer.getInt(at + 28), buffer.getDouble(at + 36),
+                buffer.getInt(at + 32), buffer.get(at + 10) != 0);
+    }
+
+    /**
+     * Copy all the animals of the file in an entity store, without building any animal
+     *
+     * @param store is the EntityStore to fill
+     * @return The ids of the animals in the store, in the order of the file
+     */
+    public int[] loadInto(EntityStore store) {
+        int[] ids = new int[count];
+        int at = HEADER_BYTES;
+        for (int i = 0; i < count; i++, at += RECORD_BYTES) {
+            ids[i] = store.add(buffer.getInt(at + 12), buffer.getInt(at + 16), buffer.getInt(at + 20),
+                    buffer.getInt(at + 24), buffer.getInt(at + 28), buffer.getDouble(at + 36));
+            store.setEatCount(ids[i], buffer.getInt(at + 32));
+        }
+        return ids;
+    }
+
+    /**
+     * Build one animal of the file as a view onto its entity in a store filled by loadInto
+     *
+     * @param index is the index of the animal, between 0 and size()
+     * @param world is the IWorld of the new animal
+     * @param store is the EntityStore filled by loadInto
+     * @param entityId is the id loadInto gave to the animal
+     * @return The new Animal, asleep if it was asleep when it was saved
+     * @throws IOException if the record is corrupted
+     */
+    public Animal create(int index, IWorld world, EntityStore store, int entityId) throws IOException {
+        return getState(index).createView(world, store, entityId);
+    }
+
+    /**
+     * Getter method for the attribute background
+     * @return The background of the saved zoo
+     */
+    public int getbackground() {return buffer.getInt(12);}
+
+    /**
+     * Getter method for the width of the world
+     * @return The width of the world of the saved zoo
+     */
+    public int getWorldWidth() {return buffer.getInt(36);}
+
+    /**
+     * Getter method for the height of the world
+     * @return The height of the world of the saved zoo
+     */
+    public int getWorldHeight() {return buffer.getInt(40);}
+
+    /**
+     * Getter method for the pauses of the saved zoo
+     * @return The saved Rules, to give to PauseControl.restore
+     */
+    public PauseControl.Rules getPauses() {
+        Set<String> species = new HashSet<String>();
+        for (int i = 0; i < SPECIES.length; i++)
+            if ((buffer.get(19) & (1 << i)) != 0)
+                species.add(SPECIES[i]);
+        int[][] regions = new int[buffer.getInt(44)][];
+        int at = HEADER_BYTES + count * RECORD_BYTES;
+        for (int i = 0; i < regions.length; i++, at += REGION_BYTES)
+            regions[i] = new int[]{buffer.getInt(at), buffer.getInt(at + 4), buffer.getInt(at + 8), buffer.getInt(at + 12), buffer.getInt(at + 16)};
+        return PauseControl.rulesOf(buffer.getLong(48), buffer.get(18) != 0, species, regions);
+    }
+
+    /**
+     * Getter method for the plant type
+     * @return NO_PLANT, LETTUCE or CABBAGE
+     */
+    public int getPlantType() {return buffer.get(16);}
+
+    /**
+     * Getter method for the location of the plant
+     * @return The Point of the plant, or null if the saved zoo has no plant
+     */
+    public Point getPlantLocation() {return getPlantType() == NO_PLANT ? null : new Point(buffer.getInt(20), buffer.getInt(24));}
+
+    /**
+     * Getter method for the location of the meat
+     * @return The Point of the meat, or null if the saved zoo has no meat
+     */
+    public Point getMeatLocation() {return buffer.get(17) == 0 ? null : new Point(buffer.getInt(28), buffer.getInt(32));}
+
+    /**
+     * Getter method for the food items of the saved zoo, the plant and the meat excepted
+     * @return The List of the saved Food
+     */
+    public List<Food> getFood() {
+        List<Food> food = new ArrayList<Food>();
+        for (int i = 0, at = foodAt; i < buffer.getInt(56); i++, at += FOOD_BYTES)
+            food.add(new Food(buffer.getInt(at), buffer.getInt(at + 4), buffer.getInt(at + 8)));
+        return food;
+    }
+}
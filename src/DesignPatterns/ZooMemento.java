@@ -1,33 +1,118 @@
 package DesignPatterns;
 
 import animals.Animal;
+import animals.AnimalState;
 import plants.Plant;
 import privateutil.Meat;
-import java.util.ArrayList;
+import simulation.PauseControl;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A saved state of the zoo
+ * Note : the state of an animal that did not change since the previous save is shared with the previous
+ * memento, so only the states of the animals that changed are new. The map from the ids to the states is
+ * still built for every save : a save visits all the animals and its map costs one entry per animal (counted
+ * in ownBytes), only the states themselves are shared
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see AnimalState
+ */
 public class ZooMemento {
-    private ArrayList<Animal> animals;
+    private final Map<Long, AnimalState> animals;
     private Meat meat=null;
     private Plant plant = null;
     private int background;
+    private final PauseControl.Rules pauses;
+    private final List<ZooFile.Food> food;
+    private long ownBytes;
+
+    public ZooMemento(List<Animal> animals, Meat meat, Plant plant, int background) throws CloneNotSupportedException {
+        this(animals, meat, plant, background, null);
+    }
 
-    public ZooMemento(ArrayList<Animal> animals, Meat meat, Plant plant, int background) throws CloneNotSupportedException {
-        this.animals = new ArrayList<Animal>();
-        for(int i = 0; i < animals.size(); i++)
-        {
-            Animal animal = (Animal)animals.get(i).clone();
-            this.animals.add(animal);
+    public ZooMemento(List<Animal> animals, Meat meat, Plant plant, int background, ZooMemento previous) throws CloneNotSupportedException {
+        this(animals, meat, plant, background, null, previous);
+    }
+
+    public ZooMemento(List<Animal> animals, Meat meat, Plant plant, int background, PauseControl.Rules pauses,
+                      ZooMemento previous) throws CloneNotSupportedException {
+        this(animals, meat, plant, List.of(), background, pauses, previous);
+    }
+
+    /**
+     * Constructor of the object ZooMemento : it saves the state of the zoo
+     *
+     * @param animals is the List of the animals of the zoo
+     * @param meat is the meat of the zoo, or null
+     * @param plant is the plant of the zoo, or null
+     * @param food is the List of the other food items of the zoo
+     * @param background is the background of the zoo
+     * @param pauses are the Rules of the pauses of the zoo, or null if nothing is paused
+     * @param previous is the previous memento whose unchanged states are shared, or null
+     * @throws CloneNotSupportedException if the food cannot be copied
+     */
+    public ZooMemento(List<Animal> animals, Meat meat, Plant plant, List<ZooFile.Food> food, int background,
+                      PauseControl.Rules pauses, ZooMemento previous) throws CloneNotSupportedException {
+        Map<Long, AnimalState> states = new LinkedHashMap<Long, AnimalState>();
+        long newStates = 0;
+        for (Animal animal : animals) {
+            AnimalState old = previous != null ? previous.animals.get(animal.getId()) : null;
+            AnimalState state = animal.captureState(old);
+            if (state != old)
+                newStates++;
+            states.put(animal.getId(), state);
         }
+        this.animals = Collections.unmodifiableMap(states);
         if(plant != null)
             this.plant = (Plant) plant.clone();
         if(meat != null)
             this.meat = (Meat) meat.clone();
         this.background = background;
+        this.pauses = pauses;
+        this.food = List.copyOf(food);
+        this.ownBytes = newStates * AnimalState.BYTES + (long) states.size() * 48 + (long) this.food.size() * ZooFile.FOOD_BYTES;
     }
 
-    public ArrayList<Animal> getAnimalList() {return animals;}
+    /**
+     * Getter method for the attribute animals
+     * @return The saved states of the animals, by animal id
+     */
+    public Map<Long, AnimalState> getAnimals() {return animals;}
     public Plant getplant() {return plant;}
     public Meat getmeat() {return meat;}
     public int getbackground() {return background;}
 
+    /**
+     * Getter method for the attribute pauses
+     * @return The saved Rules of the pauses, or null if nothing was paused
+     */
+    public PauseControl.Rules getPauses() {return pauses;}
+
+    /**
+     * Getter method for the attribute food
+     * @return The saved food items, the plant and the meat excepted
+     */
+    public List<ZooFile.Food> getFood() {return food;}
+
+    /**
+     * Getter method for the attribute ownBytes
+     * @return The estimated memory of the memento, without the states shared with the previous memento
+     */
+    public long getOwnBytes() {return ownBytes;}
+
+    /**
+     * Make the memento count all its states as its own, when the previous memento is dropped
+     * @return The estimated memory added to the memento
+     */
+    public long rebase() {
+        long full = (long) animals.size() * (AnimalState.BYTES + 48) + (long) food.size() * ZooFile.FOOD_BYTES;
+        long added = full - ownBytes;
+        ownBytes = full;
+        return added;
+    }
 }
@@ -4,17 +4,29 @@ import DesignPatterns.AnimalColor;
 import diet.IDiet;
 import food.EFoodType;
 import food.IEdible;
+import graphics.FrameSnapshot;
 import graphics.IAnimalBehavior;
 import graphics.IDrawable;
-import graphics.ZooPanel;
+import graphics.SpriteCache;
+import simulation.EntityStore;
+import simulation.EventLog;
+import simulation.FlowField;
+import simulation.FoodIndex;
+import simulation.IWorld;
+import simulation.PauseControl;
+import simulation.RandomService;
 import mobility.Mobile;
 import mobility.Point;
 import utilities.MessageUtility;
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 
 /**
@@ -25,6 +37,13 @@ import java.io.IOException;
  * @see Mobile,IEdible
  */
 public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnimalBehavior, AnimalColor, Cloneable, Runnable {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    private static final AtomicReferenceFieldUpdater<Animal, Lifecycle> LIFECYCLE =
+            AtomicReferenceFieldUpdater.newUpdater(Animal.class, Lifecycle.class, "lifecycle");
+    private static final AtomicIntegerFieldUpdater<Animal> LOOPING =
+            AtomicIntegerFieldUpdater.newUpdater(Animal.class, "looping");
+    private long id = NEXT_ID.incrementAndGet();
+    private SplittableRandom random;
     private String name;
     private double weight;
     private IDiet diet;
@@ -35,14 +54,17 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
     private int verSpeed;
     private boolean coordChanged;
     //protected Thread thread;
-    protected boolean threadSuspended;
     private int x_dir;
     private int y_dir;
     private int eatCount;
-    private ZooPanel pan;
+    private IWorld pan;
     private BufferedImage img1, img2;
-    protected Point location;
-    private boolean isalive;
+    private volatile Lifecycle lifecycle = Lifecycle.NEW;
+    private volatile Thread runner;
+    private volatile Executor scheduler;
+    private volatile int looping;
+    private int slot = -1;
+    private long joinEpoch;
 
 
     /**
@@ -55,12 +77,11 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      * @param verticalspeed An Integer that represent the animal's vertical speed
      * @param weight A Double that represent the animal's weight
      * @param animalcolor A String that represent the animal's color
-     * @param pan is a ZooPanel representing the animal GUI Panel
+     * @param pan is a IWorld representing the world of the animal
      */
-    public Animal(String name, Point p, int animalSize, int horizontalspeed, int verticalspeed, double weight, String animalcolor,ZooPanel pan) {
+    public Animal(String name, Point p, int animalSize, int horizontalspeed, int verticalspeed, double weight, String animalcolor,IWorld pan) {
         super(p);
         //this.thread = new Thread(this);
-        this.threadSuspended = false;
         this.name = name;
         this.size = animalSize;
         this.horSpeed = horizontalspeed;
@@ -72,9 +93,7 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
         this.y_dir = 1;
         this.eatCount=0;
         this.pan =pan;
-        this.location = new Point(p);
-        this.isalive = false;
-        this.addObserver(pan.getController());
+        this.setEventBus(pan.getController().getEventBus());
     }
 
     @Override
@@ -87,6 +106,9 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
             case "Lion" -> this.loadImages("lio_" + color.toLowerCase().charAt(0));
             case "Turtle" -> this.loadImages("trt_" + color.toLowerCase().charAt(0));
         }
+        EventLog log = journal();
+        if (log != null)
+            log.painted(this);
     }
 
     /**
@@ -94,25 +116,104 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      */
     public Object clone()throws CloneNotSupportedException{
         Animal copy = (Animal)super.clone();
-        copy.location = new Point(location);
-        copy.setLocation(new Point(copy.location));
-        copy.threadSuspended = threadSuspended;
         copy.name = name;
-        copy.size = size;
-        copy.horSpeed =horSpeed;
-        copy.verSpeed = verSpeed;
+        copy.size = getSize();
+        copy.horSpeed =getHorSpeed();
+        copy.verSpeed = getVerSpeed();
         copy.col = col;
-        copy.weight = weight;
+        copy.weight = store != null ? store.getWeight(entityId) : weight;
         copy.coordChanged = coordChanged;
-        copy.x_dir = x_dir;
-        copy.y_dir = y_dir;
-        copy.eatCount = eatCount;
+        copy.x_dir = xDir();
+        copy.y_dir = yDir();
+        copy.eatCount = getEatCount();
         copy.pan = pan;
-        copy.isalive = isalive;
-        copy.addObserver(pan.getController());
+        copy.runner = null;
+        copy.scheduler = null;
+        copy.looping = 0;
+        copy.lifecycle = Lifecycle.NEW;
+        copy.random = null;
+        copy.setEventBus(pan.getController().getEventBus());
         return copy;
     }
 
+    /**
+     * Getter method for the attribute id
+     * Note : the id stays the same for the whole life of the animal, and a restored animal takes back the id it had
+     *
+     * @return The id of the animal
+     */
+    public long getId() {return this.id;}
+
+    /**
+     * Getter method for the attribute joinEpoch
+     * @return The epoch of the pauses of the world when the animal was added to it
+     */
+    public long getJoinEpoch() {return this.joinEpoch;}
+
+    /**
+     * Setter method for the attribute joinEpoch
+     * @param epoch is the epoch of the pauses of the world when the animal is added to it
+     * @see PauseControl
+     */
+    public void setJoinEpoch(long epoch) {this.joinEpoch = epoch;}
+
+    /**
+     * Getter method for the attribute slot
+     * @return The index of the animal in the AnimalRegistry it belongs to, -1 if it belongs to none
+     */
+    public int getSlot() {return this.slot;}
+
+    /**
+     * Setter method for the attribute slot
+     * Note : only the AnimalRegistry that keeps the animal may change it
+     *
+     * @param slot is the index of the animal in its AnimalRegistry, -1 when it leaves it
+     */
+    public void setSlot(int slot) {this.slot = slot;}
+
+    /**
+     * Getter method for the random stream of the animal
+     * Note : the stream is derived from the seed of the simulation and the id of the animal, it is created at the
+     * first call and must only be used by the thread that updates the animal
+     * @return The SplittableRandom of the animal
+     * @see RandomService
+     */
+    protected SplittableRandom random() {
+        if (random == null)
+            random = RandomService.forEntity(id);
+        return random;
+    }
+
+    /**
+     * Getter method for the event log of the world of the animal
+     * Note : only the animals that take part in the simulation of a world (indexed in its grid) are logged
+     * @return The EventLog of the world, or null if the changes of the animal are not logged
+     */
+    private EventLog journal() {
+        return pan != null && getGrid() != null ? pan.getEventLog() : null;
+    }
+
+    void setId(long id) {
+        this.id = id;
+        this.random = null;
+        NEXT_ID.accumulateAndGet(id, Math::max);
+    }
+
+
+    /**
+     * Take an immutable copy of the state of the animal
+     * Note : if nothing changed since the previous copy, the previous copy is returned
+     *
+     * @param previous is the AnimalState taken at the previous save, or null
+     * @return The state of the animal
+     */
+    public AnimalState captureState(AnimalState previous) {
+        if (previous != null && previous.matches(this))
+            return previous;
+        return new AnimalState(this);
+    }
+
+
     /**
      * Change the color of the animal
      *
@@ -121,10 +222,21 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
     public void setColor (String color) {this.col = color; }
 
 
+    /**
+     * Kill the animal : it leaves the simulation and its loop ends, even if it sleeps
+     * Note : nothing happens if the animal is already dead
+     */
     public void interrupt()
     {
-        this.isalive = false;
-        notifyObservers();
+        if (LIFECYCLE.getAndSet(this, Lifecycle.DEAD) == Lifecycle.DEAD)
+            return;
+        syncStore();
+        LockSupport.unpark(runner);
+        EventLog log = journal();
+        if (log != null)
+            log.interrupted(this);
+        if (getEventBus() != null)
+            getEventBus().post(this);
     }
 
     /**
@@ -147,20 +259,43 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      * @return the distance traveled by the animal
      */
     @Override
-    public double move(Point p)
+    public double move(int x, int y)
     {
-        double d = super.move(p);
+        double d = super.move(x, y);
         if(d!=0) {
             double temp = getWeight();
             setWeight(temp-(d*temp*0.00025));
             setChanges(true);
         }
-        MessageUtility.logBooleanFunction(this.name,"move",p, d != 0);
+        EventLog log = journal();
+        if (hasChanged() && log != null)
+            log.moved(this, x, y);
+        if (MessageUtility.isEnabled(d != 0 ? MessageUtility.Level.DEBUG : MessageUtility.Level.WARN))
+            MessageUtility.logBooleanFunction(this.name,"move",new Point(x, y), d != 0);
         return d;
 
     }
 
 
+    /**
+     * Getting new coordinates and change the location of the animal
+     * Note : the new location is written in the event log of the world if there is one, a step of the animal
+     * is logged by move together with the weight it lost
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return True if the location change, else False
+     */
+    @Override
+    public boolean setLocation(int x, int y) {
+        boolean isSuccess = super.setLocation(x, y);
+        EventLog log = journal();
+        if (isSuccess && log != null)
+            log.moved(this, x, y);
+        return isSuccess;
+    }
+
+
     /**
      * Getter method for the attribute diet
      * @see IDiet
@@ -191,19 +326,42 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      *
      * @return The animal's size
      */
-    public int getSize() { return this.size; }
+    public int getSize() { return store != null ? store.getSize(entityId) : this.size; }
 
     /**
      * Getter method for the attribute eatcount
      *
      * @return The animal's eat counter
      */
-    public int getEatCount() {return this.eatCount; }
+    public int getEatCount() {return store != null ? store.getEatCount(entityId) : this.eatCount; }
+
+    /**
+     * Setter method for the attribute eatCount
+     *
+     * @param count is an Integer representing the eat counter of the animal
+     */
+    public void setEatCount(int count) {
+        if (store != null)
+            store.setEatCount(entityId, count);
+        else
+            this.eatCount = count;
+        EventLog log = journal();
+        if (log != null)
+            log.ate(this);
+    }
 
     /**
      * Increasing eat counter field eatcount of the animal by one
      */
-    public void eatInc() { this.eatCount++; }
+    public void eatInc() {
+        if (store != null)
+            store.setEatCount(entityId, store.getEatCount(entityId) + 1);
+        else
+            this.eatCount++;
+        EventLog log = journal();
+        if (log != null)
+            log.ate(this);
+    }
 
     /**
      * Getter method for the attribute coordChanged
@@ -222,19 +380,19 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      * Getter method for the attribute horSpeed
      * @return The animal's horizontal speed
      */
-    public int getHorSpeed() { return this.horSpeed; }
+    public int getHorSpeed() { return store != null ? store.getHorSpeed(entityId) : this.horSpeed; }
 
     /**
      * Getter method for the attribute verSpeed
      * @return The animal's vertical speed
      */
-    public int getVerSpeed() { return this.verSpeed; }
+    public int getVerSpeed() { return store != null ? store.getVerSpeed(entityId) : this.verSpeed; }
 
     /**
      * Getter method for the attributes of the animal
      * @return The animal's attributes
      */
-    public String getanimal(){return this.name + ", "+this.size+ ", "+this.col+ ", x="+this.getLocation().getx()+ ", y="+getLocation().gety() ;}
+    public String getanimal(){return this.name + ", "+getSize()+ ", "+this.col+ ", x="+getX()+ ", y="+getY() ;}
 
     /**
      * Getter method for the attributes EAT_DISTANCE
@@ -255,7 +413,7 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
     public boolean eat(IEdible food){
         double gainWeight = diet.eat(this, food);
         if(gainWeight>0){
-            setWeight((this.weight+gainWeight));
+            setWeight((getWeight()+gainWeight));
             makeSound();
             MessageUtility.logBooleanFunction(this.name,"eat", food,true);
             return true;
@@ -277,7 +435,10 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
             MessageUtility.logSetter(this.name,"setWeight",weight,false);
             return false;
         }
-        this.weight = weight;
+        if (store != null)
+            store.setWeight(entityId, weight);
+        else
+            this.weight = weight;
         MessageUtility.logSetter(this.name,"setWeight",weight,true);
         return true;
 
@@ -315,8 +476,9 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      * @return The Animal's weight
      */
     public  double getWeight(){
-        MessageUtility.logGetter(this.name, "getWeight", this.weight);
-        return this.weight;
+        double weight = store != null ? store.getWeight(entityId) : this.weight;
+        MessageUtility.logGetter(this.name, "getWeight", weight);
+        return weight;
     }
 
 
@@ -331,7 +493,17 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
         return EFoodType.MEAT;
     }
 
-    public  ZooPanel getpanel(){
+    @Override
+    public int getWorldWidth() {return pan != null ? pan.getWorldWidth() : super.getWorldWidth();}
+
+    @Override
+    public int getWorldHeight() {return pan != null ? pan.getWorldHeight() : super.getWorldHeight();}
+
+    /**
+     * Getter method for the attribute pan
+     * @return The world the animal lives in
+     */
+    public  IWorld getWorld(){
         return pan;
     }
 
@@ -348,17 +520,17 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
 
 
     /**
-     * load image method for the attribute img1
-     * Note : catch error from IOException if cannot load the image
+     * load image method for the attributes img1 and img2
+     * Note : the images are shared with the other animals of the same species and color
      *
      * @param nm is a String representing the name animal type
      */
 
     public void loadImages(String nm) {
-        try { img1 = ImageIO.read(new File(PICTURE_PATH + nm+ "_1.png"));
-            img2 = ImageIO.read(new File(PICTURE_PATH + nm+ "_2.png"));}
-        catch (IOException e) { System.out.println("Cannot load image");
-            System.out.println(e.toString());}
+        if (pan != null && !pan.loadsImages())
+            return;
+        img1 = SpriteCache.getAnimal(nm, 1);
+        img2 = SpriteCache.getAnimal(nm, 2);
     }
 
     /**
@@ -369,13 +541,30 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
      */
 
     public void drawObject (Graphics g) {
-        if(x_dir==1)//right side
-            g.drawImage(img1, getLocation().getx()-size/2, getLocation().gety()-size/10, size/2, size, pan);
+        int size = getSize();
+        if(xDir()==1)//right side
+            g.drawImage(SpriteCache.getScaled(img1, size/2, size), getX()-size/2, getY()-size/10, null);
         else //left side
-            g.drawImage(img2, getLocation().getx(), getLocation().gety()-size/10, size/2, size, pan);
+            g.drawImage(SpriteCache.getScaled(img2, size/2, size), getX(), getY()-size/10, null);
     }
     
 
+    /**
+     * Add the image of the animal to a frame snapshot, at the place drawObject would draw it
+     *
+     * @param frame is the FrameSnapshot.Builder of the frame being built
+     */
+    public void snapshot (FrameSnapshot.Builder frame) {
+        long p = getPosition();
+        int x = Point.unpackX(p), y = Point.unpackY(p);
+        int size = getSize();
+        if(xDir()==1)//right side
+            frame.add(img1, x-size/2, y-size/10, size/2, size);
+        else //left side
+            frame.add(img2, x, y-size/10, size/2, size);
+    }
+
+
     /**
      * Representation of the object as a string
      *
@@ -388,110 +577,308 @@ public abstract class Animal extends Mobile implements IEdible, IDrawable, IAnim
     public abstract void makeSound();
 
     /**
-     * Setter for the attribute threadSuspended
+     * Make the animal fall asleep
+     * Note : a running animal or an animal that is not started yet can fall asleep, the call never blocks
      */
     @Override
-    public synchronized void setSuspended(){
-        if (!this.threadSuspended)
-            this.threadSuspended = true;
+    public void setSuspended(){
+        if (LIFECYCLE.compareAndSet(this, Lifecycle.RUNNING, Lifecycle.SUSPENDED) || LIFECYCLE.compareAndSet(this, Lifecycle.NEW, Lifecycle.SUSPENDED)) {
+            EventLog log = journal();
+            if (log != null)
+                log.suspended(this, true);
+        }
     }
 
     /**
-     * Setter for the attribute threadSuspended
+     * Wake the animal up, in legacy mode its loop is given back to the thread pool
+     * Note : the call never blocks
      */
     @Override
-    public synchronized void setResumed(){
-        if (this.threadSuspended){
-            this.threadSuspended = false;
-            notify();
+    public void setResumed(){
+        if (LIFECYCLE.compareAndSet(this, Lifecycle.SUSPENDED, Lifecycle.RUNNING)){
+            EventLog log = journal();
+            if (log != null)
+                log.suspended(this, false);
+            LockSupport.unpark(runner);
+            reschedule();
+        }
+    }
+
+
+    /**
+     * Give the loop of the animal back to its scheduler, if the loop gave back its thread
+     * Note : legacy mode only, nothing happens in tick mode or if the loop still runs
+     */
+    public void reschedule(){
+        Executor pool = scheduler;
+        if (pool != null && looping == 0) {
+            try {
+                pool.execute(this);
+            }
+            catch (RejectedExecutionException e) {
+                MessageUtility.logBooleanFunction(this.name, "reschedule", "pool closed", false);
+            }
+        }
+    }
+
+
+    /**
+     * Setter method for the attribute scheduler
+     * Note : a sleeping animal gives back its thread, the scheduler runs its loop again when it wakes up
+     *
+     * @param scheduler is the Executor that runs the loop of the animal, null in tick mode
+     */
+    public void setScheduler(Executor scheduler){this.scheduler = scheduler;}
+
+
+    /**
+     * Getter method for the sleep of the animal
+     *
+     * @return True if the animal sleeps, else False
+     */
+    public  boolean getThreadSuspended(){return this.lifecycle == Lifecycle.SUSPENDED;}
+
+    public  boolean getisalive(){return this.lifecycle.isAlive();}
+
+    /**
+     * Getter method for the attribute lifecycle
+     * @return The state of the life of the animal
+     */
+    public Lifecycle getLifecycle(){return this.lifecycle;}
+
+
+    /**
+     * Start or kill the animal
+     * Note : in tick mode the engine only advances the running animals, a sleeping animal stays asleep when it is started.
+     * Only a new animal can be started, starting an animal that is already alive does nothing
+     *
+     * @param alive is a Boolean representing if the animal takes part in the simulation
+     * @throws IllegalStateException if the animal is started after it died
+     */
+    public void setAlive(boolean alive){
+        if (!alive) {
+            interrupt();
+            return;
+        }
+        if (LIFECYCLE.compareAndSet(this, Lifecycle.NEW, Lifecycle.RUNNING)) {
+            syncStore();
+            return;
+        }
+        if (lifecycle == Lifecycle.DEAD)
+            throw new IllegalStateException("A dead animal cannot be started again");
+    }
+
+
+    /**
+     * Advance the animal by one timestep of the simulation engine
+     * Note : nothing happens if the animal is dead, suspended or paused
+     */
+    public void tick() {
+        if (lifecycle != Lifecycle.RUNNING || pan.getPauseControl().isPaused(this))
+            return;
+        step();
+    }
+
+
+    /**
+     * Make one step of the animal : go toward the closest food it can eat if there is one, else wander and bounce on
+     * the borders. The food is read from the flow field of the world, in one lookup.
+     * An animal that is already on its food (it could not eat it at this tick) wanders, there is no direction to go
+     */
+    public void step() {
+        int horSpeed = getHorSpeed(), verSpeed = getVerSpeed();
+        int x_dir = xDir(), y_dir = yDir();
+        long position = getPosition();
+        int x = Point.unpackX(position), y = Point.unpackY(position);
+        FoodIndex food = this.pan.getFood();
+        long target = food.isEmpty() ? FlowField.NONE : food.getFlowField().target(x, y, FoodIndex.maskOf(this.getDiet()));
+        if (target != FlowField.NONE && target != position)
+        {
+            int tx = Point.unpackX(target), ty = Point.unpackY(target);
+            int dx = x - tx, dy = y - ty;
+            double oldSpead = Math.sqrt(horSpeed*horSpeed+verSpeed*verSpeed);
+            double toCenter = Math.sqrt((double) dx*dx + (double) dy*dy);
+            double newHorSpeed = oldSpead*dx/toCenter;
+            double newVerSpeed = oldSpead*dy/toCenter;
+            int v = 1;
+            if(newVerSpeed<0)
+            {
+                v=-1;
+                newVerSpeed = -newVerSpeed;
+            }
+            if(newVerSpeed > 10)
+                newVerSpeed = 10;
+            else if(newVerSpeed < 1) {
+                if(dy != 0)
+                    newVerSpeed = 1;
+                else
+                    newVerSpeed = 0;
+            }
+            int h = 1;
+            if(newHorSpeed<0) { h=-1; newHorSpeed = -newHorSpeed; }
+            if(newHorSpeed > 10)
+                newHorSpeed = 10;
+            else if(newHorSpeed < 1) {
+                if(dx != 0)
+                    newHorSpeed = 1;
+                else
+                    newHorSpeed = 0;
+            }
+            int nx = (int)(x - newHorSpeed*h), ny = (int)(y - newVerSpeed*v);
+            if (Point.checkBoundaries(nx, ny, getWorldWidth(), getWorldHeight())) {
+                x = nx;
+                y = ny;
+            }
+            if(x<tx)
+                x_dir = 1;
+            else
+                x_dir = -1;
+            setDirection(x_dir, y_dir);
+            this.move(x, y);
+        }
+        else
+        {
+            if (x + horSpeed*x_dir>=getWorldWidth())
+                x_dir=-1;
+            if (x + horSpeed*x_dir<=0)
+                x_dir=1;
+            if (y + verSpeed*y_dir>=getWorldHeight()-getSize())
+                y_dir=-1;
+            if (y + verSpeed*y_dir<=0)
+                y_dir=1;
+            setDirection(x_dir, y_dir);
+            int nx = x + horSpeed*x_dir, ny = y + verSpeed*y_dir;
+            if (Point.checkBoundaries(nx, ny, getWorldWidth(), getWorldHeight())) {
+                x = nx;
+                y = ny;
+            }
+            this.move(x, y);
         }
     }
 
 
     /**
-     * Getter method for the attribute threadSuspended
+     * Make the animal a view onto an entity that is already in a store, like the entities loaded from a save file
+     * Note : the state of the entity is kept, only the direction and the alive flag come from the animal
+     *
+     * @param entities is the EntityStore that keeps the state
+     * @param id is the id of the entity of the animal in the store
+     */
+    public synchronized void attachStore(EntityStore entities, int id) {
+        bindStore(null);
+        store = entities;
+        entityId = id;
+        entities.setDirection(id, x_dir, y_dir);
+        entities.setAlive(id, getisalive());
+    }
+
+
+    /**
+     * Make the animal a view onto an entity store : its position, speeds, direction, weight, size,
+     * eat counter and alive flag are then kept in the arrays of the store instead of in the animal
      *
-     * @return threadSuspended
+     * @param entities is the EntityStore that keeps the state, null to keep it back in the animal
      */
-    public  boolean getThreadSuspended(){return this.threadSuspended;}
+    public synchronized void bindStore(EntityStore entities) {
+        if (store == entities)
+            return;
+        long p = getPosition();
+        if (store != null) {
+            this.size = store.getSize(entityId);
+            this.horSpeed = store.getHorSpeed(entityId);
+            this.verSpeed = store.getVerSpeed(entityId);
+            this.x_dir = store.getXDir(entityId);
+            this.y_dir = store.getYDir(entityId);
+            this.weight = store.getWeight(entityId);
+            this.eatCount = store.getEatCount(entityId);
+            store.remove(entityId);
+            store = null;
+            entityId = -1;
+        }
+        if (entities != null) {
+            entityId = entities.add(Point.unpackX(p), Point.unpackY(p), horSpeed, verSpeed, size, weight);
+            entities.setDirection(entityId, x_dir, y_dir);
+            entities.setEatCount(entityId, eatCount);
+            entities.setAlive(entityId, getisalive());
+            store = entities;
+        }
+        setLocation(Point.unpackX(p), Point.unpackY(p));
+    }
+
+    private int xDir() {return store != null ? store.getXDir(entityId) : x_dir;}
 
-    public  boolean getisalive(){return this.isalive;}
+    private int yDir() {return store != null ? store.getYDir(entityId) : y_dir;}
+
+    private void setDirection(int dx, int dy) {
+        if (store != null)
+            store.setDirection(entityId, dx, dy);
+        else {
+            this.x_dir = dx;
+            this.y_dir = dy;
+        }
+    }
+
+    private void syncStore() {
+        if (store != null)
+            store.setAlive(entityId, getisalive());
+    }
 
 
     /**
      * Run method
+     * Note : legacy mode only, the animal advances itself in its own loop instead of being advanced by the engine.
+     * The loop ends when the animal falls asleep or is paused, so it does not keep a thread of the pool, it is
+     * given back to its scheduler when it wakes up or is resumed. The loop also ends as soon as the animal dies, and an animal
+     * killed while it waited in the queue of the pool never starts
      * @see Thread
      */
     @Override
     public void run() {
-        this.isalive = true;
-        while (isalive) {
-            if (this.threadSuspended) {
-                synchronized(this) {
-                    try {
-                        wait();
-                    } catch (InterruptedException a) {
-                        System.out.println(getName() + "  is sleeping");
+        if (!LOOPING.compareAndSet(this, 0, 1))
+            return;
+        runner = Thread.currentThread();
+        try {
+            if (LIFECYCLE.compareAndSet(this, Lifecycle.NEW, Lifecycle.RUNNING))
+                syncStore();
+            while (true) {
+                Lifecycle state = lifecycle;
+                if (state == Lifecycle.DEAD)
+                    return;
+                PauseControl pauses = pan.getPauseControl();
+                boolean paused = state == Lifecycle.RUNNING && pauses.isPaused(this);
+                if (state == Lifecycle.SUSPENDED || paused) {
+                    if (scheduler != null) {
+                        if (paused && !pauses.await(this))
+                            continue;
+                        runner = null;
+                        looping = 0;
+                        // woken up between the check and the release : take the loop back if nobody else did
+                        if (lifecycle == Lifecycle.RUNNING && !pauses.isPaused(this) && LOOPING.compareAndSet(this, 0, 1)) {
+                            runner = Thread.currentThread();
+                            continue;
+                        }
+                        return;
                     }
-                }
-            }
-            else if ((this.pan.getmeat()!=null && this.getDiet().canEat(EFoodType.MEAT))||this.pan.getplant()!=null && this.getDiet().canEat(EFoodType.VEGETABLE))
-            {
-                double oldSpead = Math.sqrt(horSpeed*horSpeed+verSpeed*verSpeed);
-                double newHorSpeed = oldSpead*(location.getx() - pan.getWidth()/2)/(Math.sqrt(Math.pow(location.getx() - pan.getWidth()/2,2)+ Math.pow(location.gety() - pan.getHeight()/2,2)));
-                double newVerSpeed = oldSpead*(location.gety() - pan.getHeight()/2)/ (Math.sqrt(Math.pow(location.getx() - pan.getWidth()/2,2)+ Math.pow(location.gety() - pan.getHeight()/2,2)));
-                int v = 1;
-                if(newVerSpeed<0)
-                {
-                    v=-1;
-                    newVerSpeed = -newVerSpeed;
-                }
-                if(newVerSpeed > 10)
-                    newVerSpeed = 10;
-                else if(newVerSpeed < 1) {
-                    if(location.gety() != pan.getHeight()/2)
-                        newVerSpeed = 1;
+                    if (paused)
+                        LockSupport.parkNanos(this, 10_000_000L);
                     else
-                        newVerSpeed = 0;
+                        LockSupport.park(this);
                 }
-                int h = 1;
-                if(newHorSpeed<0) { h=-1; newHorSpeed = -newHorSpeed; }
-                if(newHorSpeed > 10)
-                    newHorSpeed = 10;
-                else if(newHorSpeed < 1) {
-                    if(location.getx() != pan.getWidth()/2)
-                        newHorSpeed = 1;
-                    else
-                        newHorSpeed = 0;
+                else {
+                    step();
+                    LockSupport.parkNanos(this, 10_000_000L);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    System.out.println(getName()+ "  is dead...");
+                    return;
                 }
-                location.setpoint((int)(location.getx() - newHorSpeed*h), (int)(location.gety() - newVerSpeed*v));
-                if(location.getx()<pan.getWidth()/2)
-                    x_dir = 1;
-                else
-                    x_dir = -1;
-                this.move(location);
-            }
-            else
-            {
-                if (location.getx() + horSpeed*x_dir>=800)
-                    x_dir=-1;
-                if (location.getx() + horSpeed*x_dir<=0)
-                    x_dir=1;
-                if (location.gety() + verSpeed*y_dir>=600-getSize())
-                    y_dir=-1;
-                if (location.gety() + verSpeed*y_dir<=0)
-                    y_dir=1;
-                location.setpoint(location.getx() + horSpeed*x_dir,location.gety() + verSpeed*y_dir);
-                this.move(location);
             }
-
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                System.out.println(getName()+ "  is dead...");
-                return;
+        }
+        finally {
+            if (runner == Thread.currentThread()) {
+                runner = null;
+                looping = 0;
             }
-            setChanged();
         }
     }
 }
@@ -0,0 +1,159 @@
+package animals;
+
+import DesignPatterns.AbstractZooFactory;
+import mobility.Point;
+import simulation.EntityStore;
+import simulation.IWorld;
+
+
+/**
+ * An immutable copy of the state of an animal, used by the mementos of the zoo
+ * Note : a state equal to the one of the previous save is shared instead of copied again
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see Animal
+ */
+public final class AnimalState {
+    public static final int BYTES = 96;
+    private final long id;
+    private final String name;
+    private final String color;
+    private final int x, y;
+    private final int horSpeed, verSpeed;
+    private final int size;
+    private final double weight;
+    private final int eatCount;
+    private final boolean suspended;
+
+
+    /**
+     * Constructor of the object AnimalState : it copies the state of an animal
+     *
+     * @param animal is the Animal to copy
+     */
+    AnimalState(Animal animal) {
+        long p = animal.getPosition();
+        this.id = animal.getId();
+        this.name = animal.getAnimalName();
+        this.color = animal.getColor();
+        this.x = Point.unpackX(p);
+        this.y = Point.unpackY(p);
+        this.horSpeed = animal.getHorSpeed();
+        this.verSpeed = animal.getVerSpeed();
+        this.size = animal.getSize();
+        this.weight = animal.getWeight();
+        this.eatCount = animal.getEatCount();
+        this.suspended = animal.getThreadSuspended();
+    }
+
+
+    /**
+     * Constructor of the object AnimalState : it sets every attribute, used when a state is read back from a file
+     *
+     * @param id is the id of the animal
+     * @param name is the species of the animal
+     * @param color is the color of the animal
+     * @param x is the x coordinate of the animal
+     * @param y is the y coordinate of the animal
+     * @param horSpeed is the horizontal speed of the animal
+     * @param verSpeed is the vertical speed of the animal
+     * @param size is the size of the animal
+     * @param weight is the weight of the animal
+     * @param eatCount is the number of meals of the animal
+     * @param suspended is True if the animal is asleep
+     */
+    public AnimalState(long id, String name, String color, int x, int y, int horSpeed, int verSpeed, int size,
+                       double weight, int eatCount, boolean suspended) {
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.x = x;
+        this.y = y;
+        this.horSpeed = horSpeed;
+        this.verSpeed = verSpeed;
+        this.size = size;
+        this.weight = weight;
+        this.eatCount = eatCount;
+        this.suspended = suspended;
+    }
+
+
+    /**
+     * Check if the state is still the actual state of an animal
+     *
+     * @param animal is the Animal to compare with
+     * @return True if nothing changed since the state was taken, else False
+     */
+    boolean matches(Animal animal) {
+        return id == animal.getId() && animal.getPosition() == Point.pack(x, y) && weight == animal.getWeight()
+                && eatCount == animal.getEatCount() && suspended == animal.getThreadSuspended()
+                && color.equals(animal.getColor());
+    }
+
+
+    /**
+     * Put back the state in a live animal
+     *
+     * @param animal is the Animal to update, it must have the same id
+     */
+    public void applyTo(Animal animal) {
+        animal.setLocation(x, y);
+        animal.setWeight(weight);
+        animal.setEatCount(eatCount);
+        if (!color.equals(animal.getColor()))
+            animal.PaintAnimal(color);
+        if (suspended)
+            animal.setSuspended();
+        else
+            animal.setResumed();
+    }
+
+
+    /**
+     * Create a new animal with this state, for an animal that is not in the zoo anymore
+     *
+     * @param world is the IWorld of the new animal
+     * @return The new Animal, with the same id
+     */
+    public Animal create(IWorld world) {
+        Animal animal = AbstractZooFactory.of(name).createAnimal(name, size, horSpeed, verSpeed, color, world);
+        animal.setId(id);
+        applyTo(animal);
+        return animal;
+    }
+
+    /**
+     * Create a new animal with this state as a view onto an entity that already holds its numbers
+     *
+     * @param world is the IWorld of the new animal
+     * @param store is the EntityStore that keeps the numbers of the animal
+     * @param entityId is the id of the entity of the animal in the store
+     * @return The new Animal, with the same id
+     */
+    public Animal createView(IWorld world, EntityStore store, int entityId) {
+        Animal animal = AbstractZooFactory.of(name).createAnimal(name, size, horSpeed, verSpeed, color, world);
+        animal.setId(id);
+        animal.attachStore(store, entityId);
+        if (suspended)
+            animal.setSuspended();
+        return animal;
+    }
+
+    /**
+     * Getter method for the attribute id
+     * @return The id of the animal
+     */
+    public long getId() {return id;}
+
+    public String getName() {return name;}
+    public String getColor() {return color;}
+    public int getX() {return x;}
+    public int getY() {return y;}
+    public int getHorSpeed() {return horSpeed;}
+    public int getVerSpeed() {return verSpeed;}
+    public int getSize() {return size;}
+    public double getWeight() {return weight;}
+    public int getEatCount() {return eatCount;}
+    public boolean isSuspended() {return suspended;}
+}
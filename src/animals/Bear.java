@@ -1,7 +1,7 @@
 package animals;
 
 import diet.Omnivore;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 import privateutil.Roar;
 import utilities.MessageUtility;
@@ -26,9 +26,9 @@ public class Bear extends Roar {
      * @param horizontalspeed A int that represent the horizontal speed of the Bear
      * @param verticalspeed A int that represent the vertical speed of the Bear
      * @param animalColor A String that represent the color of the Bear image
-     * @param pan A Zoopanel that represent the parent panel of the Bear
+     * @param pan A IWorld that represent the world of the Bear
      */
-    public Bear(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, ZooPanel pan) {
+    public Bear(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, IWorld pan) {
         super("Bear", new Point(100, 5), animalSize, horizontalspeed, verticalspeed, animalSize * 1.5, animalColor, pan);
         this.furColor="GRAY";
         setDiet(new Omnivore());
@@ -2,7 +2,7 @@ package animals;
 
 import diet.Herbivore;
 import diet.Omnivore;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 import privateutil.Chew;
 import utilities.MessageUtility;
@@ -28,9 +28,9 @@ public class Elephant extends Chew {
      * @param horizontalspeed A int that represent the horizontal speed of the Elephant
      * @param verticalspeed A int that represent the vertical speed of the Elephant
      * @param animalColor A String that represent the color of the Elephant image
-     * @param pan A Zoopanel that represent the parent panel of the Elephant
+     * @param pan A IWorld that represent the world of the Elephant
      */
-    public Elephant(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, ZooPanel pan) {
+    public Elephant(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, IWorld pan) {
         super("Elephant", new Point(50, 90), animalSize, horizontalspeed, verticalspeed, animalSize * 10, animalColor,pan);
         this.trunkLength=1;
         setDiet(new Herbivore());
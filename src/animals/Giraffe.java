@@ -1,7 +1,7 @@
 package animals;
 
 import diet.Herbivore;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 import privateutil.Chew;
 import utilities.MessageUtility;
@@ -26,9 +26,9 @@ public class Giraffe extends Chew {
      * @param horizontalspeed A int that represent the horizontal speed of the Giraffe
      * @param verticalspeed A int that represent the vertical speed of the Giraffe
      * @param animalColor A String that represent the color of the Giraffe image
-     * @param pan A Zoopanel that represent the parent panel of the Giraffe
+     * @param pan A IWorld that represent the world of the Giraffe
      */
-    public Giraffe(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, ZooPanel pan) {
+    public Giraffe(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, IWorld pan) {
         super("Giraffe", new Point(50, 0), animalSize, horizontalspeed, verticalspeed, animalSize * 2.2, animalColor,pan);
         this.neckLength =1.5;
         setDiet(new Herbivore());
@@ -0,0 +1,24 @@
+package animals;
+
+
+/**
+ * The states of the life of an animal
+ * NEW : the animal is created but does not take part in the simulation yet
+ * RUNNING : the animal moves and eats
+ * SUSPENDED : the animal sleeps, it is alive but does not move
+ * DEAD : the animal was eaten or removed, it never moves again
+ * Note : an animal can fall asleep before it is started, it is then started asleep
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see Animal
+ */
+public enum Lifecycle {
+    NEW, RUNNING, SUSPENDED, DEAD;
+
+    /**
+     * Check if an animal in this state is alive
+     * @return True if the state is RUNNING or SUSPENDED, else False
+     */
+    public boolean isAlive() {return this == RUNNING || this == SUSPENDED;}
+}
@@ -2,12 +2,11 @@ package animals;
 
 import diet.Carnivore;
 import food.IEdible;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 import food.EFoodType;
 import privateutil.Roar;
 import utilities.MessageUtility;
-import java.util.Random;
 
 
 /**
@@ -29,9 +28,9 @@ public class Lion extends Roar {
      * @param horizontalspeed A int that represent the horizontal speed of the Lion
      * @param verticalspeed A int that represent the vertical speed of the Lion
      * @param animalColor A String that represent the color of the Lion image
-     * @param pan A Zoopanel that represent the parent panel of the Lion
+     * @param pan A IWorld that represent the world of the Lion
      */
-    public Lion(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, ZooPanel pan) {
+    public Lion(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, IWorld pan) {
         super("Lion", new Point(20, 0), animalSize, horizontalspeed, verticalspeed, animalSize * 0.8, animalColor,pan);
         this.scarCount=0;
         setDiet(new Carnivore());
@@ -142,9 +141,7 @@ public class Lion extends Roar {
     @Override
     public boolean eat(IEdible food) {
         if (super.eat(food)) {
-            Random rand = new Random();
-            int r = rand.nextInt(2);
-            if (r == 1) {
+            if (random().nextInt(2) == 1) {
                 setScarCount(this.scarCount+1);
             }
             return true;
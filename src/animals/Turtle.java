@@ -1,7 +1,7 @@
 package animals;
 
 import diet.Herbivore;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 import privateutil.Chew;
 import utilities.MessageUtility;
@@ -26,9 +26,9 @@ public class Turtle extends Chew {
      * @param horizontalspeed A int that represent the horizontal speed of the Turtle
      * @param verticalspeed A int that represent the vertical speed of the Turtle
      * @param animalColor A String that represent the color of the Turtle image
-     * @param pan A Zoopanel that represent the parent panel of the Turtle
+     * @param pan A IWorld that represent the world of the Turtle
      */
-    public Turtle(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, ZooPanel pan) {
+    public Turtle(int animalSize, int horizontalspeed, int verticalspeed, String animalColor, IWorld pan) {
         super("Turtle", new Point(80, 0), animalSize, horizontalspeed, verticalspeed, animalSize * 0.5, animalColor,pan);
         this.age=1;
         setDiet(new Herbivore());
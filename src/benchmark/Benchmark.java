@@ -0,0 +1,99 @@
+package benchmark;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A small microbenchmark harness : warmup iterations, then measurement iterations of a fixed duration
+ * Note : every operation returns a value that is consumed so the JIT cannot remove the measured code
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ */
+public class Benchmark {
+
+    /**
+     * The measured operation
+     */
+    public interface Operation {
+        long run() throws Exception;
+    }
+
+    private static volatile long sink;
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+    private final List<String> results;
+
+
+    /**
+     * The constructor of the Benchmark object, sets the attributes of the object
+     *
+     * @param warmupIterations is the number of iterations run before measuring
+     * @param measureIterations is the number of measured iterations
+     * @param iterationMillis is the duration of one iteration in milliseconds
+     */
+    public Benchmark(int warmupIterations, int measureIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.results = new ArrayList<String>();
+    }
+
+
+    /**
+     * Measure the average time of an operation and keep the result
+     *
+     * @param name is the name of the benchmark
+     * @param op is the measured Operation
+     * @throws Exception if the operation fails
+     */
+    public void measure(String name, Operation op) throws Exception {
+        for (int i = 0; i < warmupIterations; i++)
+            iteration(op);
+        double[] nsPerOp = new double[measureIterations];
+        double mean = 0;
+        for (int i = 0; i < measureIterations; i++) {
+            nsPerOp[i] = iteration(op);
+            mean += nsPerOp[i] / measureIterations;
+        }
+        double variance = 0;
+        for (double v : nsPerOp)
+            variance += (v - mean) * (v - mean) / Math.max(1, measureIterations - 1);
+        results.add(String.format("%-45s %14.1f ns/op  +- %10.1f  (%d x %d ms)", name, mean, Math.sqrt(variance), measureIterations, iterationNanos / 1_000_000L));
+    }
+
+
+    /**
+     * Print all the results kept so far
+     *
+     * @param out is the PrintStream that receives the results
+     */
+    public void report(PrintStream out) {
+        for (String result : results)
+            out.println(result);
+    }
+
+
+    /**
+     * Call the operation until the iteration duration is over
+     *
+     * @param op is the measured Operation
+     * @return The average time of one call in nanoseconds
+     */
+    private double iteration(Operation op) throws Exception {
+        long calls = 0;
+        long acc = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            acc += op.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        sink += acc;
+        return (double) elapsed / calls;
+    }
+}
@@ -0,0 +1,206 @@
+package benchmark;
+
+import DesignPatterns.ZooFile;
+import DesignPatterns.ZooMemento;
+import animals.Animal;
+import animals.Bear;
+import animals.Elephant;
+import animals.Lion;
+import graphics.Camera;
+import graphics.FrameSnapshot;
+import graphics.RasterRenderer;
+import mobility.Point;
+import plants.Lettuce;
+import privateutil.Meat;
+import simulation.EntityStore;
+import simulation.FoodIndex;
+import simulation.HeadlessWorld;
+import utilities.MessageUtility;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+
+/**
+ * Microbenchmarks of the hot paths of the simulation
+ * Usage : java benchmark.SimulationBenchmarks [quiet|logging|all] [filter]
+ * Note : the quiet profile turns the messages of MessageUtility off, the logging profile keeps the configured
+ * level and output (see the zoo.log.* system properties)
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see Benchmark
+ */
+public class SimulationBenchmarks {
+    private static final int[] POPULATIONS = {10, 100, 1000, 10000};
+
+
+    /**
+     * The main method of the benchmarks
+     * @param args Possible arguments that may be passed
+     * @throws Exception if a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        String profile = args.length > 0 ? args[0] : "all";
+        String filter = args.length > 1 ? args[1] : "";
+        PrintStream err = System.err;
+        MessageUtility.Level level = MessageUtility.getLevel();
+        Benchmark quiet = new Benchmark(3, 5, 500);
+        Benchmark logging = new Benchmark(3, 5, 500);
+
+        if (profile.equals("quiet") || profile.equals("all")) {
+            MessageUtility.setLevel(MessageUtility.Level.OFF);
+            runAll(quiet, "quiet", filter);
+            MessageUtility.setLevel(level);
+        }
+        if (profile.equals("logging") || profile.equals("all"))
+            runAll(logging, "logging", filter);
+
+        MessageUtility.flush();
+        err.println("Benchmark                                     Score");
+        quiet.report(err);
+        logging.report(err);
+    }
+
+
+    /**
+     * Run all the benchmarks matching the filter
+     *
+     * @param bench is the Benchmark that keeps the results
+     * @param profile is the name of the profile, added to the name of the benchmarks
+     * @param filter is a part of the name of the benchmarks to run, empty to run all
+     */
+    private static void runAll(Benchmark bench, String profile, String filter) throws Exception {
+        HeadlessWorld world = new HeadlessWorld(800, 600, true);
+        Lion lion = new Lion(100, 5, 5, "Natural", world);
+        Elephant elephant = new Elephant(100, 5, 5, "Natural", world);
+        Bear bear = new Bear(100, 5, 5, "Natural", world);
+        Lettuce lettuce = Lettuce.getInstance(world);
+        Meat meat = Meat.getInstance(world);
+        Point a = new Point(100, 100), b = new Point(110, 120);
+
+        if (matches("move", filter))
+            bench.measure(profile + ".Mobile.move", () -> (long) lion.move(lion.getX() == a.getx() ? b : a));
+        if (matches("calcDistance", filter) || matches("distanceSquared", filter)) {
+            bench.measure(profile + ".Mobile.calcDistance", () -> (long) lion.calcDistance(b));
+            bench.measure(profile + ".Mobile.distanceSquared", () -> lion.distanceSquared(b.getx(), b.gety()));
+        }
+        if (matches("eat", filter)) {
+            bench.measure(profile + ".Animal.eat.Carnivore", () -> eat(lion, meat));
+            bench.measure(profile + ".Animal.eat.Herbivore", () -> eat(elephant, lettuce));
+            bench.measure(profile + ".Animal.eat.Omnivore", () -> eat(bear, meat));
+        }
+        for (int population : POPULATIONS)
+            if (matches("manageZoo", filter)) {
+                HeadlessWorld zoo = crowd(population, false);
+                bench.measure(profile + ".manageZoo." + population, () -> {
+                    zoo.manageZoo();
+                    return zoo.getAnimals().size();
+                });
+            }
+        if (matches("memento", filter)) {
+            HeadlessWorld zoo = crowd(100, false);
+            ArrayList<Animal> animals = new ArrayList<Animal>(zoo.getAnimals());
+            ZooMemento base = new ZooMemento(animals, meat, lettuce, 0);
+            bench.measure(profile + ".ZooMemento.capture.100", () -> new ZooMemento(animals, meat, lettuce, 0).getAnimals().size());
+            bench.measure(profile + ".ZooMemento.capture.delta.100", () -> new ZooMemento(animals, meat, lettuce, 0, base).getOwnBytes());
+        }
+        if (matches("file", filter)) {
+            HeadlessWorld zoo = crowd(10000, false);
+            ArrayList<Animal> animals = new ArrayList<Animal>(zoo.getAnimals());
+            File file = File.createTempFile("zoo", ".bin");
+            file.deleteOnExit();
+            bench.measure(profile + ".ZooFile.write.10000", () -> {
+                ZooFile.write(file, animals, meat, lettuce, List.of(), 0, zoo.getWorldWidth(), zoo.getWorldHeight(), zoo.getPauseControl().getRules());
+                return file.length();
+            });
+            bench.measure(profile + ".ZooFile.loadInto.10000", () -> ZooFile.open(file).loadInto(new EntityStore(10000)).length);
+        }
+        if (matches("food", filter)) {
+            FoodIndex food = new FoodIndex(800, 600);
+            SplittableRandom rand = new SplittableRandom(1);
+            for (int i = 0; i < 1000; i++) {
+                Point at = new Point(rand.nextInt(800), rand.nextInt(600));
+                if (i % 2 == 0)
+                    food.add(new Lettuce(world, at));
+                else
+                    food.add(new Meat(world, at));
+            }
+            bench.measure(profile + ".FoodIndex.nearest.1000", () -> food.nearest(rand.nextInt(800), rand.nextInt(600), bear.getDiet()).id());
+        }
+        if (matches("draw", filter)) {
+            BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            bench.measure(profile + ".Animal.drawObject", () -> {
+                lion.drawObject(g);
+                return image.getRGB(0, 0);
+            });
+            g.dispose();
+        }
+        if (matches("frame", filter)) {
+            HeadlessWorld zoo = crowd(10000, true);
+            BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            bench.measure(profile + ".FrameSnapshot.paint.10000", () -> {
+                FrameSnapshot.Builder builder = new FrameSnapshot.Builder();
+                for (Animal animal : zoo.getAnimals())
+                    animal.snapshot(builder);
+                builder.build(0).paint(g);
+                return image.getRGB(0, 0);
+            });
+            RasterRenderer renderer = new RasterRenderer();
+            Camera.View view = new Camera.View(0, 0, 1, 800, 600);
+            bench.measure(profile + ".RasterRenderer.paint.10000", () -> {
+                FrameSnapshot.Builder builder = new FrameSnapshot.Builder();
+                for (Animal animal : zoo.getAnimals())
+                    animal.snapshot(builder);
+                renderer.paint(g, builder.build(0), view);
+                return image.getRGB(0, 0);
+            });
+            g.dispose();
+        }
+    }
+
+
+    /**
+     * Make an animal eat and put its weight back so that every call does the same work
+     *
+     * @param animal is the Animal that eats
+     * @param food is the food given
+     * @return 1 if the eating was successful, else 0
+     */
+    private static long eat(Animal animal, food.IEdible food) {
+        double weight = animal.getWeight();
+        boolean success = animal.eat(food);
+        animal.setWeight(weight);
+        return success ? 1 : 0;
+    }
+
+
+    /**
+     * Build a world with small lions and elephants at random locations
+     * Note : a lion is never heavy enough to eat an elephant, so the population stays the same during the benchmark
+     *
+     * @param population is the number of animals
+     * @param images is a Boolean representing if the animals load their images
+     * @return The world
+     */
+    private static HeadlessWorld crowd(int population, boolean images) {
+        HeadlessWorld world = new HeadlessWorld(800, 600, images);
+        Random rand = new Random(population);
+        for (int i = 0; i < population; i++) {
+            Animal animal = i % 2 == 0 ? new Lion(50, 5, 5, "Natural", world) : new Elephant(50, 5, 5, "Natural", world);
+            animal.setLocation(new Point(rand.nextInt(800), rand.nextInt(600)));
+            world.addAnimal(animal);
+        }
+        return world;
+    }
+
+    private static boolean matches(String name, String filter) {return filter.isEmpty() || name.contains(filter);}
+}
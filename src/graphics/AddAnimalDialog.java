@@ -5,6 +5,7 @@ import DesignPatterns.CarnivoreFactory;
 import DesignPatterns.HerbivoreFactory;
 import DesignPatterns.OmnivoreFactory;
 import animals.*;
+import simulation.AnimalRegistry;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -31,10 +32,10 @@ public class AddAnimalDialog extends JDialog {
      * Constructor of the JDialog AddAnimalDialog : it sets the attributes of the JDialog
      * Note : Adds animals to a zoo according to the user's choice
      *
-     * @param Animallist  A ArrayList<Animal> that represent the animals in the zoo
+     * @param Animallist  A AnimalRegistry that represent the animals in the zoo
      * @param zoopanel A Zoopanel that represent the parent panel of the JDialog
      */
-    public AddAnimalDialog(ZooPanel zoopanel, ArrayList<Animal> Animallist){
+    public AddAnimalDialog(ZooPanel zoopanel, AnimalRegistry Animallist){
         this.setTitle("Add Animal");
         this.setSize(500,325);
         this.setVisible(true);
@@ -176,8 +177,9 @@ public class AddAnimalDialog extends JDialog {
                         case "Omnivore" -> zooFactory = new OmnivoreFactory();
                         case "Herbivore" -> zooFactory = new HerbivoreFactory();
                     }
-                    Animallist.add(zooFactory.createAnimal(animalTypesCombo.getItemAt(animalTypesCombo.getSelectedIndex()),Integer.parseInt(textField.getText()), Integer.parseInt(textspeedField.getText()), Integer.parseInt(textspeedvField.getText()), animalcolorsCombo.getItemAt(animalcolorsCombo.getSelectedIndex()),zoopanel));
-                    zoopanel.getThreadpool().addtopoll(Animallist.get(Animallist.size()-1));
+                    Animal animal = zooFactory.createAnimal(animalTypesCombo.getItemAt(animalTypesCombo.getSelectedIndex()),Integer.parseInt(textField.getText()), Integer.parseInt(textspeedField.getText()), Integer.parseInt(textspeedvField.getText()), animalcolorsCombo.getItemAt(animalcolorsCombo.getSelectedIndex()),zoopanel);
+                    Animallist.add(animal);
+                    zoopanel.startAnimal(animal);
                     /*Class c;
                     ClassLoader cl = ClassLoader.getSystemClassLoader();
                     try {
@@ -0,0 +1,121 @@
+package graphics;
+
+import java.awt.Rectangle;
+
+
+/**
+ * A class representing the part of the world the panel shows : where it looks and how close
+ * Note : the camera is moved on the EDT and read by the simulation when it publishes a frame, so its state is
+ * one immutable View replaced at every change. The view never goes past the borders of the world, and it
+ * cannot zoom out further than the whole world
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see ZooPanel
+ */
+public class Camera {
+    public static final double MAX_ZOOM = 8;
+    private final int worldWidth;
+    private final int worldHeight;
+    private volatile View view;
+
+
+    /**
+     * An immutable state of the camera
+     *
+     * @param x is the location on axis X of the world seen at the left side of the panel
+     * @param y is the location on axis Y of the world seen at the top side of the panel
+     * @param zoom is the number of pixels of the panel for one unit of the world
+     * @param width is the width of the panel
+     * @param height is the height of the panel
+     */
+    public record View(double x, double y, double zoom, int width, int height) {
+
+        /**
+         * Getter method for the part of the world that is seen
+         * @return The Rectangle of the world seen in the panel
+         */
+        public Rectangle visible() {
+            int left = (int) Math.floor(x), top = (int) Math.floor(y);
+            return new Rectangle(left, top, (int) Math.ceil(x + width / zoom) - left, (int) Math.ceil(y + height / zoom) - top);
+        }
+    }
+
+
+    /**
+     * The constructor of the Camera object, it looks at the top left corner of the world without zoom
+     *
+     * @param worldWidth is the width of the world
+     * @param worldHeight is the height of the world
+     */
+    public Camera(int worldWidth, int worldHeight) {
+        this.worldWidth = Math.max(1, worldWidth);
+        this.worldHeight = Math.max(1, worldHeight);
+        this.view = new View(0, 0, 1, 1, 1);
+    }
+
+
+    /**
+     * Getter method for the attribute view
+     * @return The actual state of the camera
+     */
+    public View getView() {return view;}
+
+
+    /**
+     * Change the size of the panel the camera shows
+     *
+     * @param width is the new width of the panel
+     * @param height is the new height of the panel
+     */
+    public synchronized void resize(int width, int height) {
+        View old = view;
+        view = clamp(old.x(), old.y(), old.zoom(), Math.max(1, width), Math.max(1, height));
+    }
+
+
+    /**
+     * Move the camera
+     *
+     * @param dx is the number of pixels the world moves to the right in the panel
+     * @param dy is the number of pixels the world moves down in the panel
+     */
+    public synchronized void pan(int dx, int dy) {
+        View old = view;
+        view = clamp(old.x() - dx / old.zoom(), old.y() - dy / old.zoom(), old.zoom(), old.width(), old.height());
+    }
+
+
+    /**
+     * Zoom in or out, the point of the world under the mouse stays under the mouse
+     *
+     * @param px is the location of the mouse on axis X of the panel
+     * @param py is the location of the mouse on axis Y of the panel
+     * @param factor is the ratio between the new zoom and the actual one (greater than one to zoom in)
+     */
+    public synchronized void zoomAt(int px, int py, double factor) {
+        View old = view;
+        double zoom = Math.max(minZoom(old.width(), old.height()), Math.min(MAX_ZOOM, old.zoom() * factor));
+        double wx = old.x() + px / old.zoom(), wy = old.y() + py / old.zoom();
+        view = clamp(wx - px / zoom, wy - py / zoom, zoom, old.width(), old.height());
+    }
+
+
+    /**
+     * The smallest zoom : the whole world fits in the panel, but the world is never stretched
+     */
+    private double minZoom(int width, int height) {
+        return Math.min(1, Math.min((double) width / worldWidth, (double) height / worldHeight));
+    }
+
+
+    /**
+     * Build a view that stays in the world
+     */
+    private View clamp(double x, double y, double zoom, int width, int height) {
+        zoom = Math.max(zoom, minZoom(width, height));
+        x = Math.max(0, Math.min(x, worldWidth - width / zoom));
+        y = Math.max(0, Math.min(y, worldHeight - height / zoom));
+        return new View(x, y, zoom, width, height);
+    }
+}
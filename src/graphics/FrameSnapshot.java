@@ -0,0 +1,244 @@
+package graphics;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+
+/**
+ * An immutable picture of the zoo at the end of a tick : the sprites to draw and where to draw them
+ * Note : the simulation publishes a new snapshot at the end of every tick and the EDT only paints the latest
+ * one, so a frame is never torn by the animals moving while it is painted.
+ * The sprites are kept already scaled at their size (see SpriteCache.getScaled) and grouped by picture, so the
+ * frame is painted in batches of copies of the same picture without any scaling. With a zoom the sprites are
+ * taken from the cache at their size on the screen, so a zoomed frame is also painted without any scaling
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see IDrawable
+ */
+public final class FrameSnapshot {
+    public static final FrameSnapshot EMPTY = new Builder().build(0);
+    private final Image[] sprites;
+    private final Image[] sources;
+    private final int[] bounds;
+    private final int count;
+    private final long tick;
+
+    private FrameSnapshot(Image[] sprites, Image[] sources, int[] bounds, int count, long tick) {
+        this.sprites = sprites;
+        this.sources = sources;
+        this.bounds = bounds;
+        this.count = count;
+        this.tick = tick;
+    }
+
+
+    /**
+     * Draw all the sprites of the snapshot, picture after picture
+     *
+     * @param g is a Graphics object that return from repaint to paintComponent
+     */
+    public void paint(Graphics g) {
+        for (int i = 0; i < count; i++)
+            g.drawImage(sprites[i], bounds[4 * i], bounds[4 * i + 1], null);
+    }
+
+
+    /**
+     * Draw all the sprites of the snapshot as seen by a camera
+     * Note : the sprites are copied at whole pixels, the fastest way to draw an image, no transform is used
+     *
+     * @param g is a Graphics2D object that return from repaint to paintComponent
+     * @param view is the Camera.View the sprites are seen with
+     */
+    public void paint(Graphics2D g, Camera.View view) {
+        double zoom = view.zoom();
+        if (zoom == 1) {
+            int dx = (int) Math.round(view.x()), dy = (int) Math.round(view.y());
+            for (int i = 0; i < count; i++)
+                g.drawImage(sprites[i], bounds[4 * i] - dx, bounds[4 * i + 1] - dy, null);
+            return;
+        }
+        Image previous = null, sprite = null;
+        int width = 0, height = 0;
+        for (int i = 0; i < count; i++) {
+            int w = (int) Math.round(bounds[4 * i + 2] * zoom), h = (int) Math.round(bounds[4 * i + 3] * zoom);
+            if (sources[i] != previous || w != width || h != height) {
+                previous = sources[i];
+                width = w;
+                height = h;
+                sprite = SpriteCache.getScaled(previous, w, h);
+            }
+            if (sprite != null)
+                g.drawImage(sprite, screen(i, 0, view.x(), zoom), screen(i, 1, view.y(), zoom), null);
+        }
+    }
+
+
+    /**
+     * Getter method for the location of a sprite on the screen
+     *
+     * @param i is the index of the sprite
+     * @param part is 0 for axis X and 1 for axis Y
+     * @param origin is the location of the world seen at the side of the screen
+     * @param zoom is the zoom of the view
+     * @return The pixel of the screen where the side of the sprite is drawn
+     */
+    int screen(int i, int part, double origin, double zoom) {return (int) Math.round((bounds[4 * i + part] - origin) * zoom);}
+
+
+    /**
+     * Getter method for the picture of a sprite
+     * @param i is the index of the sprite
+     * @return The Image of the sprite, already scaled at its size
+     */
+    Image getSprite(int i) {return sprites[i];}
+
+    /**
+     * Getter method for the picture of a sprite at its size on the screen
+     *
+     * @param i is the index of the sprite
+     * @param zoom is the zoom of the view
+     * @return The Image of the sprite scaled for the zoom, null if it is too small to be seen
+     */
+    Image getSprite(int i, double zoom) {
+        if (zoom == 1)
+            return sprites[i];
+        return SpriteCache.getScaled(sources[i], (int) Math.round(bounds[4 * i + 2] * zoom), (int) Math.round(bounds[4 * i + 3] * zoom));
+    }
+
+    /**
+     * Getter method for the bounds of a sprite
+     * @param i is the index of the sprite
+     * @param part is 0 for the left side, 1 for the top side, 2 for the width and 3 for the height
+     * @return The part of the bounds
+     */
+    int getBound(int i, int part) {return bounds[4 * i + part];}
+
+
+    /**
+     * Getter method for the attribute count
+     * @return The number of sprites of the snapshot
+     */
+    public int getCount() {return count;}
+
+    /**
+     * Getter method for the attribute tick
+     * @return The number of the tick the snapshot was taken at
+     */
+    public long getTick() {return tick;}
+
+
+    /**
+     * A class collecting the sprites of a snapshot
+     * Note : a builder with a clip keeps only the sprites whose bounds intersect it
+     */
+    public static class Builder {
+        private Image[] sprites = new Image[16];
+        private Image[] sources = new Image[16];
+        private int[] bounds = new int[64];
+        private int count = 0;
+        private final Rectangle clip;
+
+
+        /**
+         * The constructor of the Builder object, every sprite added is kept
+         */
+        public Builder() {this(null);}
+
+
+        /**
+         * The constructor of the Builder object, sets the attributes of the object
+         *
+         * @param clip is the Rectangle of the world that is seen, null to keep every sprite
+         */
+        public Builder(Rectangle clip) {this.clip = clip;}
+
+
+        /**
+         * Add a sprite to the snapshot, nothing is added if the image is null or if the sprite is outside the clip
+         * Note : the image is kept to be scaled for a zoom, and drawn by its copy scaled at the size of the sprite
+         *
+         * @param sprite is the Image to draw
+         * @param x is an Integer representing the left side of the sprite
+         * @param y is an Integer representing the top side of the sprite
+         * @param width is an Integer representing the width of the sprite
+         * @param height is an Integer representing the height of the sprite
+         */
+        public void add(Image sprite, int x, int y, int width, int height) {
+            if (sprite == null)
+                return;
+            if (clip != null && (x + width < clip.x || x > clip.x + clip.width || y + height < clip.y || y > clip.y + clip.height))
+                return;
+            Image scaled = SpriteCache.getScaled(sprite, width, height);
+            if (scaled == null)
+                return;
+            if (count == sprites.length) {
+                sprites = Arrays.copyOf(sprites, count * 2);
+                sources = Arrays.copyOf(sources, count * 2);
+                bounds = Arrays.copyOf(bounds, count * 8);
+            }
+            sprites[count] = scaled;
+            sources[count] = sprite;
+            bounds[4 * count] = x;
+            bounds[4 * count + 1] = y;
+            bounds[4 * count + 2] = width;
+            bounds[4 * count + 3] = height;
+            count++;
+        }
+
+
+        /**
+         * Build the immutable snapshot
+         * Note : the sprites are grouped by picture, the pictures in the order they were first added and the
+         * sprites of one picture in the order they were added, so what is added first stays under the rest
+         *
+         * @param tick is the number of the tick the snapshot is taken at
+         * @return The snapshot
+         */
+        public FrameSnapshot build(long tick) {
+            batch();
+            FrameSnapshot frame = new FrameSnapshot(sprites, sources, bounds, count, tick);
+            sprites = null;
+            sources = null;
+            bounds = null;
+            return frame;
+        }
+
+
+        /**
+         * Sort the sprites by picture with a counting sort
+         */
+        private void batch() {
+            IdentityHashMap<Image, Integer> pictures = new IdentityHashMap<Image, Integer>();
+            int[] picture = new int[count];
+            for (int i = 0; i < count; i++) {
+                Integer known = pictures.putIfAbsent(sprites[i], pictures.size());
+                picture[i] = known != null ? known : pictures.size() - 1;
+            }
+            if (pictures.size() <= 1)
+                return;
+            int[] start = new int[pictures.size() + 1];
+            for (int i = 0; i < count; i++)
+                start[picture[i] + 1]++;
+            for (int p = 1; p < start.length; p++)
+                start[p] += start[p - 1];
+            Image[] sorted = new Image[count];
+            Image[] sortedSources = new Image[count];
+            int[] sortedBounds = new int[4 * count];
+            for (int i = 0; i < count; i++) {
+                int at = start[picture[i]]++;
+                sorted[at] = sprites[i];
+                sortedSources[at] = sources[i];
+                System.arraycopy(bounds, 4 * i, sortedBounds, 4 * at, 4);
+            }
+            sprites = sorted;
+            sources = sortedSources;
+            bounds = sortedBounds;
+        }
+    }
+}
@@ -12,5 +12,6 @@ public interface IDrawable {
     public final static String PICTURE_PATH = System.getProperty("user.dir")+"/assignment2_pictures/";
     public void loadImages(String nm);
     public void drawObject (Graphics g);
+    public void snapshot (FrameSnapshot.Builder frame);
     public String getColor();
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package graphics;
 
 import animals.Animal;
 import javax.swing.table.AbstractTableModel;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * a Class that defines a GUI Table which show all the information about the zoo's animals
@@ -12,13 +12,13 @@ import java.util.ArrayList;
  * @see AbstractTableModel
  */
 public class Info extends AbstractTableModel {
-    private ArrayList<Animal> data;
+    private List<Animal> data;
 
     /**
      * Constructor of the object Info : it sets the attributes of the object
-     * @param data A ArrayList<Animal> that represent the animals in the zoo
+     * @param data A List<Animal> that represent the animals in the zoo
      */
-    public Info(ArrayList<Animal> data){this.data=data;}
+    public Info(List<Animal> data){this.data=data;}
 
     @Override
     public int getRowCount() { return data.size(); }
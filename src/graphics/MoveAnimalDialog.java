@@ -5,7 +5,9 @@ import mobility.Point;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.event.*;
-import java.util.ArrayList;
+import simulation.AnimalRegistry;
+
+import java.util.List;
 
 
 /**
@@ -23,10 +25,11 @@ public class MoveAnimalDialog extends JDialog {
      * Constructor of the JDialog MoveAnimalDialog : it sets the attributes of the JDialog
      * Note : Moves the animal to a new point in the zoo according to the user's choice
      *
-     * @param Animallist  A ArrayList<Animal> that represent the animals in the zoo
+     * @param Animallist  A AnimalRegistry that represent the animals in the zoo
      * @param zoopanel A Zoopanel that represent the parent panel of the JDialog
      */
-    public MoveAnimalDialog(ZooPanel zoopanel, ArrayList<Animal> Animallist){
+    public MoveAnimalDialog(ZooPanel zoopanel, AnimalRegistry Animallist){
+        List<Animal> choices = Animallist.snapshot();
         this.setTitle("Move Animal");
         this.setSize(500, 200);
         this.setVisible(true);
@@ -55,7 +58,7 @@ public class MoveAnimalDialog extends JDialog {
 
         JComboBox<String> allanimalsCombo = new JComboBox();
         DefaultComboBoxModel modele= new DefaultComboBoxModel();
-        for (Animal animal : Animallist) {
+        for (Animal animal : choices) {
             modele.addElement(animal.getanimal());
         }
         allanimalsCombo.setModel(modele);
@@ -64,7 +67,7 @@ public class MoveAnimalDialog extends JDialog {
         this.getContentPane().add(allanimalsCombo);
 
         JTextField textFieldx = new JTextField(500);
-        TitledBorder xchoice = BorderFactory.createTitledBorder("Write the animal's new location on the axis x (0-800): ");
+        TitledBorder xchoice = BorderFactory.createTitledBorder("Write the animal's new location on the axis x (0-" + zoopanel.getWorldWidth() + "): ");
         textFieldx.setBorder(xchoice);
         this.getContentPane().add(textFieldx );
         textFieldx.addKeyListener(new KeyAdapter() {
@@ -77,7 +80,7 @@ public class MoveAnimalDialog extends JDialog {
         });
 
         JTextField textFieldy = new JTextField(500);
-        TitledBorder ychoice = BorderFactory.createTitledBorder("Write the animal's new location on the axis y (0-600): ");
+        TitledBorder ychoice = BorderFactory.createTitledBorder("Write the animal's new location on the axis y (0-" + zoopanel.getWorldHeight() + "): ");
         textFieldy.setBorder(ychoice);
         this.getContentPane().add(textFieldy );
         textFieldy.addKeyListener(new KeyAdapter() {
@@ -95,17 +98,17 @@ public class MoveAnimalDialog extends JDialog {
         jButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if(textFieldx.getText().length()>3||textFieldx.getText().length()==0)
+                if(textFieldx.getText().length()>6||textFieldx.getText().length()==0)
                     JOptionPane.showMessageDialog(zoopanel, "The location x of your animal isn't correct.\nTry again.", "Error", JOptionPane.ERROR_MESSAGE);
-                else if(Integer.parseInt(textFieldx.getText())>800 || Integer.parseInt(textFieldx.getText())<0)
+                else if(Integer.parseInt(textFieldx.getText())>zoopanel.getWorldWidth() || Integer.parseInt(textFieldx.getText())<0)
                     JOptionPane.showMessageDialog(zoopanel, "The location x of your animal isn't correct.\nTry again.", "Error", JOptionPane.ERROR_MESSAGE);
-                else if(textFieldy.getText().length()>3||textFieldy.getText().length()==0)
+                else if(textFieldy.getText().length()>6||textFieldy.getText().length()==0)
                     JOptionPane.showMessageDialog(zoopanel, "The location y of your animal isn't correct.\nTry again.", "Error", JOptionPane.ERROR_MESSAGE);
-                else if(Integer.parseInt(textFieldy.getText())>600 || Integer.parseInt(textFieldy.getText())<0)
+                else if(Integer.parseInt(textFieldy.getText())>zoopanel.getWorldHeight() || Integer.parseInt(textFieldy.getText())<0)
                     JOptionPane.showMessageDialog(zoopanel, "The location y of your animal isn't correct.\nTry again.", "Error", JOptionPane.ERROR_MESSAGE);
                 else {
-                    Animallist.get(allanimalsCombo.getSelectedIndex()).setLocation(new Point(Integer.parseInt(textFieldx.getText()), Integer.parseInt(textFieldy.getText())));
-                    Animallist.get(allanimalsCombo.getSelectedIndex()).setChanges(true);
+                    choices.get(allanimalsCombo.getSelectedIndex()).setLocation(new Point(Integer.parseInt(textFieldx.getText()), Integer.parseInt(textFieldy.getText())));
+                    choices.get(allanimalsCombo.getSelectedIndex()).setChanges(true);
                     //zoopanel.manageZoo();
                     JOptionPane.showMessageDialog(null, "Animal moved", "Message",JOptionPane.INFORMATION_MESSAGE);
                     zoopanel.getF().setEnabled(true);
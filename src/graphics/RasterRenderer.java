@@ -0,0 +1,224 @@
+package graphics;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+
+/**
+ * A software renderer that writes the sprites of a frame straight in the pixels of one image
+ * Note : the image is cut in horizontal bands that are drawn in parallel, every band blends all the sprites that
+ * cross it in the order of the frame, so the result is the same as drawing the sprites one after the other.
+ * The pixels are premultiplied by their alpha, so blending a pixel is a few integer operations, and the image
+ * is drawn on the panel once per frame. With a zoom the sprites are taken from the cache at their size on the
+ * screen (see FrameSnapshot), so they are never scaled while the frame is drawn
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see FrameSnapshot
+ * @see simulation.SimulationConfig.RenderMode
+ */
+public class RasterRenderer {
+    private static final int BAND_HEIGHT = 32;
+    private static final int BOX = 9;
+    private final Map<Image, int[]> pixels = new WeakHashMap<Image, int[]>();
+    private BufferedImage canvas;
+    private int[] raster;
+
+
+    /**
+     * Draw a frame as seen by a camera
+     * Note : it is called on the EDT, only the bands are drawn on the other cores
+     *
+     * @param g is a Graphics2D object that return from repaint to paintComponent
+     * @param frame is the FrameSnapshot to draw
+     * @param view is the Camera.View the sprites are seen with
+     */
+    public void paint(Graphics2D g, FrameSnapshot frame, Camera.View view) {
+        int width = view.width(), height = view.height();
+        if (canvas == null || canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            raster = ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+        }
+        int count = frame.getCount();
+        int[][] sources = new int[count][];
+        int[] boxes = new int[BOX * count];
+        double zoom = view.zoom();
+        long left = Math.round(view.x()), top = Math.round(view.y());
+        for (int i = 0; i < count; i++) {
+            Image sprite = frame.getSprite(i, zoom);
+            int b = BOX * i;
+            if (sprite == null) {
+                sources[i] = new int[0];
+                continue;
+            }
+            int iw = sprite.getWidth(null), ih = sprite.getHeight(null);
+            int x = zoom == 1 ? (int) (frame.getBound(i, 0) - left) : frame.screen(i, 0, view.x(), zoom);
+            int y = zoom == 1 ? (int) (frame.getBound(i, 1) - top) : frame.screen(i, 1, view.y(), zoom);
+            span(boxes, b, x, iw, iw);
+            span(boxes, b + 4, y, ih, ih);
+            boxes[b + 8] = iw;
+            sources[i] = pixelsOf(sprite);
+        }
+        int bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        int[] target = raster;
+        IntStream.range(0, bands).parallel().forEach(band ->
+                rasterize(target, width, band * BAND_HEIGHT, Math.min(height, (band + 1) * BAND_HEIGHT), sources, boxes, count));
+        g.drawImage(canvas, 0, 0, null);
+    }
+
+
+    /**
+     * Compute the pixels a sprite covers on one axis and where they are read in the sprite
+     * Note : a pixel is covered if its centre is in the sprite, and it reads the pixel of the sprite under its
+     * centre, like Graphics2D does. The positions in the sprite are fixed-point numbers with 16 bits of fraction
+     *
+     * @param boxes is the array that receives the first pixel, the pixel after the last one, and the position
+     *              in the sprite of the first pixel, then the step between two pixels
+     * @param at is the index where the four values are written
+     * @param start is the location of the side of the sprite on the image
+     * @param size is the size of the sprite on the image
+     * @param pixels is the number of pixels of the sprite on this axis
+     */
+    private static void span(int[] boxes, int at, double start, double size, int pixels) {
+        int first = (int) Math.ceil(start - 0.5), end = (int) Math.ceil(start + size - 0.5);
+        if (end <= first || pixels <= 0) {
+            boxes[at] = boxes[at + 1] = 0;
+            return;
+        }
+        double ratio = pixels / size;
+        long step = Math.round(ratio * 65536);
+        long position = Math.round((first + 0.5 - start) * ratio * 65536);
+        while (end > first && position + (end - first - 1) * step >= (long) pixels << 16)
+            end--;
+        boxes[at] = first;
+        boxes[at + 1] = end;
+        boxes[at + 2] = (int) position;
+        boxes[at + 3] = (int) step;
+    }
+
+
+    /**
+     * Clear the rows of one band and blend every sprite that crosses it
+     *
+     * @param target is the array of the pixels of the image
+     * @param width is the width of the image
+     * @param top is the first row of the band
+     * @param bottom is the row after the last row of the band
+     * @param sources are the premultiplied pixels of the sprites
+     * @param boxes are the spans of the sprites on both axes (see span) and the width of their pixels
+     * @param count is the number of sprites
+     */
+    private static void rasterize(int[] target, int width, int top, int bottom, int[][] sources, int[] boxes, int count) {
+        Arrays.fill(target, top * width, bottom * width, 0);
+        for (int i = 0; i < count; i++) {
+            int b = BOX * i;
+            int x0 = Math.max(0, boxes[b]), x1 = Math.min(width, boxes[b + 1]);
+            int y0 = Math.max(top, boxes[b + 4]), y1 = Math.min(bottom, boxes[b + 5]);
+            if (y0 >= y1 || x0 >= x1)
+                continue;
+            int[] source = sources[i];
+            int iw = boxes[b + 8];
+            int stepX = boxes[b + 3], stepY = boxes[b + 7];
+            int fx0 = boxes[b + 2] + (x0 - boxes[b]) * stepX;
+            int fy = boxes[b + 6] + (y0 - boxes[b + 4]) * stepY;
+            if (stepX == 1 << 16) {
+                for (int y = y0; y < y1; y++, fy += stepY)
+                    blendRow(source, (fy >>> 16) * iw + (fx0 >>> 16), target, y * width + x0, x1 - x0);
+                continue;
+            }
+            for (int y = y0; y < y1; y++, fy += stepY) {
+                int row = (fy >>> 16) * iw;
+                int at = y * width + x0;
+                for (int x = x0, fx = fx0; x < x1; x++, at++, fx += stepX)
+                    target[at] = blend(source[row + (fx >>> 16)], target[at]);
+            }
+        }
+    }
+
+
+    /**
+     * Blend a row of pixels of a sprite drawn at its own size
+     *
+     * @param source are the pixels of the sprite
+     * @param from is the index of the first pixel of the sprite
+     * @param target are the pixels of the image
+     * @param at is the index of the first pixel of the image
+     * @param length is the number of pixels
+     */
+    private static void blendRow(int[] source, int from, int[] target, int at, int length) {
+        for (int k = 0; k < length; k++)
+            target[at + k] = blend(source[from + k], target[at + k]);
+    }
+
+
+    /**
+     * Draw a premultiplied pixel over another one
+     *
+     * @param s is the pixel drawn
+     * @param d is the pixel under it
+     * @return The blended pixel
+     */
+    private static int blend(int s, int d) {
+        int alpha = s >>> 24;
+        if (alpha == 255)
+            return s;
+        if (alpha == 0)
+            return d;
+        return s + scale(d, 255 - alpha);
+    }
+
+
+    /**
+     * Multiply the four channels of a premultiplied pixel by a factor between 0 and 255, divided by 255
+     *
+     * @param pixel is the premultiplied pixel
+     * @param factor is the factor
+     * @return The scaled pixel
+     */
+    private static int scale(int pixel, int factor) {
+        int rb = (pixel & 0x00ff00ff) * factor + 0x00800080;
+        rb = ((rb + ((rb >>> 8) & 0x00ff00ff)) >>> 8) & 0x00ff00ff;
+        int ag = ((pixel >>> 8) & 0x00ff00ff) * factor + 0x00800080;
+        ag = (ag + ((ag >>> 8) & 0x00ff00ff)) & 0xff00ff00;
+        return ag | rb;
+    }
+
+
+    /**
+     * Getter method for the premultiplied pixels of a picture, read once per picture
+     *
+     * @param sprite is the Image of the sprite
+     * @return The pixels, row after row
+     */
+    private int[] pixelsOf(Image sprite) {
+        int[] known = pixels.get(sprite);
+        if (known != null)
+            return known;
+        int w = sprite.getWidth(null), h = sprite.getHeight(null);
+        BufferedImage img;
+        if (sprite instanceof BufferedImage buffered)
+            img = buffered;
+        else {
+            img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = img.createGraphics();
+            g.drawImage(sprite, 0, 0, null);
+            g.dispose();
+        }
+        int[] argb = img.getRGB(0, 0, w, h, null, 0, w);
+        for (int i = 0; i < argb.length; i++) {
+            int c = argb[i], a = c >>> 24;
+            if (a == 0)
+                argb[i] = 0;
+            else if (a < 255)
+                argb[i] = (a << 24) | (scale(c, a) & 0x00ffffff);
+        }
+        pixels.put(sprite, argb);
+        return argb;
+    }
+}
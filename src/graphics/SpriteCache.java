@@ -0,0 +1,227 @@
+package graphics;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+/**
+ * A process-wide cache of the pictures of the zoo
+ * Note : every picture (species, color and direction) is decoded once and the same image is shared by all
+ * the objects that draw it. The cache only keeps soft references, so a variant that no object uses anymore
+ * can be evicted when the memory is low and is decoded again the next time it is needed.
+ * The cache also keeps every picture scaled at the sizes it is drawn at, in the format of the screen, so
+ * drawing a sprite is a plain copy and not a new scaling at every frame.
+ * A picture is made only once even when several threads ask for it at the same time, and a scaled picture is
+ * found by the number of its source, so the cache never keeps a source picture alive
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see IDrawable
+ */
+public class SpriteCache {
+    private static final ConcurrentHashMap<Object, Entry> cache = new ConcurrentHashMap<Object, Entry>();
+    private static final ReferenceQueue<BufferedImage> evicted = new ReferenceQueue<BufferedImage>();
+    private static final Map<Image, Integer> sources = Collections.synchronizedMap(new WeakHashMap<Image, Integer>());
+    private static final AtomicInteger nextSource = new AtomicInteger();
+    private static final Entry MISSING = new Entry(null, null);
+
+    private SpriteCache() {}
+
+
+    /**
+     * Getter method for a picture of the folder of the pictures
+     * Note : the picture is read from the disk only if it is not in the cache, and outside of the map so the
+     * other pictures are not blocked meanwhile. A file that cannot be loaded is remembered until clear is called,
+     * it is not read again at every frame
+     *
+     * @param fileName is a String representing the name of the file, for example "lio_n_1.png"
+     * @return The image, null if it cannot be loaded
+     */
+    public static BufferedImage get(String fileName) {
+        purge();
+        Entry entry = cache.get(fileName);
+        if (entry == MISSING)
+            return null;
+        BufferedImage img = entry != null ? entry.get() : null;
+        if (img != null)
+            return img;
+        if (entry != null)
+            cache.remove(fileName, entry);
+        try {
+            img = ImageIO.read(new File(IDrawable.PICTURE_PATH + fileName));
+        }
+        catch (IOException e) {
+            System.out.println("Cannot load image");
+            System.out.println(e.toString());
+        }
+        if (img == null) {
+            cache.putIfAbsent(fileName, MISSING);
+            return null;
+        }
+        Entry made = new Entry(fileName, img);
+        Entry known = cache.putIfAbsent(fileName, made);
+        if (known != null) {
+            BufferedImage shared = known.get();
+            if (shared != null)
+                return shared;
+            cache.replace(fileName, known, made);
+        }
+        return img;
+    }
+
+
+    /**
+     * Getter method for the picture of an animal
+     *
+     * @param prefix is a String representing the species and the color, for example "lio_n"
+     * @param direction is an Integer representing the picture (1 or 2)
+     * @return The image, null if it cannot be loaded
+     */
+    public static BufferedImage getAnimal(String prefix, int direction) {
+        return get(prefix + "_" + direction + ".png");
+    }
+
+
+    /**
+     * Getter method for a picture scaled at a given size
+     * Note : the scaled picture is made once per size, by halving the picture until it is close to the size,
+     * which keeps the quality of a smooth scaling, and it is compatible with the screen
+     *
+     * @param source is the Image to scale
+     * @param width is the width of the scaled picture
+     * @param height is the height of the scaled picture
+     * @return The scaled image, null if the source is null or the size is empty
+     */
+    public static Image getScaled(Image source, int width, int height) {
+        if (source == null || width <= 0 || height <= 0)
+            return null;
+        Scaled key = new Scaled(sources.computeIfAbsent(source, s -> nextSource.getAndIncrement()), width, height);
+        return lookup(key, k -> scale(source, width, height));
+    }
+
+
+    /**
+     * Create an empty translucent image in the format of the screen
+     *
+     * @param width is the width of the image
+     * @param height is the height of the image
+     * @return The image
+     */
+    public static BufferedImage createCompatible(int width, int height) {
+        if (GraphicsEnvironment.isHeadless())
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+
+    /**
+     * Getter method for the number of pictures in the cache
+     * @return The number of pictures in the cache
+     */
+    public static int size() {
+        purge();
+        return cache.size();
+    }
+
+
+    /**
+     * Remove all the pictures from the cache
+     */
+    public static void clear() {cache.clear();}
+
+
+    /**
+     * Find a picture in the cache, or make it and keep it
+     * Note : the picture is made in computeIfAbsent, so only one thread makes it, it is only used for the scaled
+     * pictures that are made in memory. An entry whose picture has been collected is removed and the picture is
+     * made again
+     *
+     * @param key is the key of the picture
+     * @param maker is the Function that makes the picture, it returns null if the picture cannot be made
+     * @return The image, null if it cannot be made
+     */
+    private static BufferedImage lookup(Object key, Function<Object, BufferedImage> maker) {
+        purge();
+        while (true) {
+            Entry entry = cache.computeIfAbsent(key, k -> {
+                BufferedImage made = maker.apply(k);
+                return made != null ? new Entry(k, made) : null;
+            });
+            if (entry == null)
+                return null;
+            BufferedImage img = entry.get();
+            if (img != null)
+                return img;
+            cache.remove(key, entry);
+        }
+    }
+
+
+    /**
+     * Scale a picture in steps of one half, then to the exact size
+     */
+    private static BufferedImage scale(Image source, int width, int height) {
+        Image current = source;
+        int w = source.getWidth(null), h = source.getHeight(null);
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage step = createCompatible(w, h);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = step;
+        } while (w != width || h != height);
+        return (BufferedImage) current;
+    }
+
+
+    /**
+     * Remove the entries whose image has been collected
+     */
+    private static void purge() {
+        Reference<? extends BufferedImage> ref;
+        while ((ref = evicted.poll()) != null) {
+            Entry entry = (Entry) ref;
+            cache.remove(entry.key, entry);
+        }
+    }
+
+
+    /**
+     * The key of a scaled picture : the number given to the source picture and the size
+     */
+    private record Scaled(int source, int width, int height) {}
+
+
+    /**
+     * A soft reference that remembers its key
+     */
+    private static class Entry extends SoftReference<BufferedImage> {
+        private final Object key;
+
+        Entry(Object key, BufferedImage img) {
+            super(img, evicted);
+            this.key = key;
+        }
+    }
+}
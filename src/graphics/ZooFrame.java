@@ -1,12 +1,10 @@
 package graphics;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 
 
@@ -23,7 +21,6 @@ public class ZooFrame extends JFrame implements  ActionListener{
     private final JMenuBar menuBar;
     private final ZooPanel zooPanel;
     private BufferedImage img = null;
-    private JLabel label;
     private static ZooFrame instance = null;
 
     /**
@@ -34,7 +31,11 @@ public class ZooFrame extends JFrame implements  ActionListener{
         super("Zoo");
         menuBar = new JMenuBar();
         JMenu file = new JMenu("File");
+        JMenuItem open = new JMenuItem("Open...");
+        JMenuItem saveAs = new JMenuItem("Save As...");
         JMenuItem exit = new JMenuItem("Exit");
+        file.add(open);
+        file.add(saveAs);
         file.add(exit);
         JMenu background = new JMenu("Background");
         JMenuItem image = new JMenuItem("Image");
@@ -50,18 +51,19 @@ public class ZooFrame extends JFrame implements  ActionListener{
         menuBar.add(background);
         menuBar.add(help);
 
+        open.addActionListener(this);
+        saveAs.addActionListener(this);
         exit.addActionListener(this);
         image.addActionListener(this);
         green.addActionListener(this);
         none.addActionListener(this);
         help2.addActionListener(this);
 
-        label = new JLabel();
-        this.add(label);
         this.setLayout(new BorderLayout());
         this.setSize(814,636);
+        this.setMinimumSize(new Dimension(400, 300));
         this.add(menuBar,BorderLayout.PAGE_START);
-        this.setResizable(false);
+        this.setResizable(true);
 
         zooPanel = ZooPanel.getInstance(this);
         zooPanel.setOpaque(false);
@@ -76,6 +78,28 @@ public class ZooFrame extends JFrame implements  ActionListener{
     {
         switch (e.getActionCommand()) {
             case "Exit" -> System.exit(0);
+            case "Open..." -> {
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+                    try {
+                        zooPanel.loadFromFile(chooser.getSelectedFile());
+                    }
+                    catch (IOException a) {
+                        JOptionPane.showMessageDialog(this, "Cannot open the file\n" + a.getMessage());
+                    }
+                }
+            }
+            case "Save As..." -> {
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+                    try {
+                        zooPanel.saveToFile(chooser.getSelectedFile());
+                    }
+                    catch (IOException a) {
+                        JOptionPane.showMessageDialog(this, "Cannot save the file\n" + a.getMessage());
+                    }
+                }
+            }
             case "Help" -> JOptionPane.showMessageDialog(this, "Home Work 2\nGUI", "Message", JOptionPane.INFORMATION_MESSAGE);
             case "Green" -> {
                 setgreen();
@@ -85,7 +109,6 @@ public class ZooFrame extends JFrame implements  ActionListener{
             }
             case "Image" -> {
                 setimage();
-                this.zooPanel.setbackground(2);
             }
         }
     }
@@ -108,30 +131,27 @@ public class ZooFrame extends JFrame implements  ActionListener{
 
     public BufferedImage getImg(){return img;}
 
+    /**
+     * Show the image in the background, the panel draws it as tiles under the camera
+     */
     public void setimage(){
         try {
-            this.remove(label);
             this.getContentPane().setBackground(null);
-            img = ImageIO.read(new File(IDrawable.PICTURE_PATH + "savanna.png"));
-            label = new JLabel();
-            label.setBounds(0, 11, 800, 600);
-            Image dimg = img.getScaledInstance(label.getWidth(), label.getHeight(), Image.SCALE_SMOOTH);
-            ImageIcon imageIcon = new ImageIcon(dimg);
-            label.setIcon(imageIcon);
-            this.getContentPane().add(label);
+            img = SpriteCache.get("savanna.png");
+            if (img == null)
+                throw new IOException("savanna.png");
+            this.zooPanel.setbackground(2);
         }
         catch (IOException a) { System.out.println("Cannot load image");
             System.out.println(a.toString());}
     }
 
     public void setnone(){
-        this.remove(label);
         this.getContentPane().setBackground(null);
         this.zooPanel.setbackground(0);
     }
 
     public void setgreen(){
-        this.remove(label);
         this.getContentPane().setBackground(Color.green);
         this.zooPanel.setbackground(1);
     }
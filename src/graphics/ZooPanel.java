@@ -3,40 +3,110 @@ package graphics;
 import DesignPatterns.ChangeColorDialog;
 import DesignPatterns.ThreadPool;
 import DesignPatterns.ZooController;
+import DesignPatterns.ZooFile;
 import DesignPatterns.ZooMemento;
 import animals.Animal;
+import animals.AnimalState;
+import food.IEdible;
+import mobility.Ilocatable;
+import mobility.Point;
+import mobility.SpatialGrid;
 import plants.Cabbage;
 import plants.Lettuce;
 import plants.Plant;
 import privateutil.Meat;
+import simulation.AnimalRegistry;
+import simulation.EntityStore;
+import simulation.EventLog;
+import simulation.FoodIndex;
+import simulation.IWorld;
+import simulation.InteractionPhase;
+import simulation.PauseControl;
+import simulation.SimulationClock;
+import simulation.SimulationConfig;
+import simulation.SimulationEngine;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 
 
 
 /**
  * A class representing the GUI main panel
  * Note : It inherits from JPanel and implements from ActionListener
+ * The panel shows the world through a camera : drag the mouse to move it, turn the wheel to zoom.
+ * Only the entities whose pictures intersect the part of the world that is seen are drawn, they are found
+ * with the spatial indexes of the animals and of the food, so a large world is drawn as fast as a small one
  *
  * @version 17.0.2
  * @author Attias Zaccharie, Amar Yuval
  * @see JPanel
  * @see ActionListener
+ * @see IWorld
  */
-public class ZooPanel extends JPanel implements  ActionListener {
+public class ZooPanel extends JPanel implements  ActionListener, IWorld {
+    private static final int FOOD_MARGIN = 32;
+    private static final int TILE_WIDTH = 800, TILE_HEIGHT = 600;
+    private static final long MAX_TILE_PIXELS = 1L << 22;
+    private static final double ZOOM_STEP = 1.1;
+    private static final int LOAD_BATCH = 512;
     private static ZooPanel instance = null;
     private JPanel actionPanel;
-    private ArrayList<Animal> Animallist;
+    private AnimalRegistry Animallist;
     private ZooFrame f;
     private Plant plant = null;
     private Meat meat = null;
+    private final int worldWidth = SimulationConfig.getWorldWidth();
+    private final int worldHeight = SimulationConfig.getWorldHeight();
+    private final FoodIndex food = new FoodIndex(worldWidth, worldHeight);
+    private final Camera camera = new Camera(worldWidth, worldHeight);
     private ZooController controller;
     private ThreadPool threadpool;
-    private ArrayList<ZooMemento> memento;
+    private SimulationEngine engine;
+    private SpatialGrid grid;
+    private EventLog eventLog;
+    private final PauseControl pauses = new PauseControl();
+    private final SimulationClock clock = new SimulationClock();
+    private volatile Frame frame;
+    private volatile boolean frameDirty;
+    private long frameCount;
+    private Timer renderTimer;
+    private ArrayDeque<ZooMemento> memento;
+    private long mementoBytes;
     private int background;
+    private ZooFile loading;
+    private EntityStore loaded;
+    private int[] loadedIds;
+    private int loadedCount;
+    private long loadedEpoch;
+    private VolatileImage tile;
+    private final RasterRenderer raster = SimulationConfig.getRenderMode() == SimulationConfig.RenderMode.RASTER ? new RasterRenderer() : null;
+
+
+    /**
+     * A published frame and the view of the camera it was culled with
+     *
+     * @param snapshot is the FrameSnapshot to paint
+     * @param view is the Camera.View the snapshot was taken with
+     */
+    private record Frame(FrameSnapshot snapshot, Camera.View view) {}
+
+
     /**
      * The constructor of the ZooPanel object: it sets the attributes of the object
      * Note : ZooPanel contain two panels, one for control buttons, and the other for the visual board
@@ -56,8 +126,10 @@ public class ZooPanel extends JPanel implements  ActionListener {
         JButton restore = new JButton("Restore");
         JButton exit = new JButton("Exit");
 
-        Animallist = new ArrayList<Animal>();
-        memento = new ArrayList<ZooMemento>();
+        Animallist = new AnimalRegistry();
+        grid = new SpatialGrid(1);
+        memento = new ArrayDeque<ZooMemento>();
+        mementoBytes = 0;
 
         addanimal.addActionListener(this);
         sleep.addActionListener(this);
@@ -85,8 +157,61 @@ public class ZooPanel extends JPanel implements  ActionListener {
         this.setLayout(new BorderLayout());
         this.add(actionPanel,BorderLayout.PAGE_END);
         this.threadpool = new ThreadPool();
-        this.controller = new ZooController();
-        this.controller.start();
+        this.eventLog = EventLog.openConfigured(worldWidth, worldHeight);
+        if (eventLog != null)
+            eventLog.setClock(clock);
+        pauses.setEventLog(eventLog);
+        this.controller = new ZooController(this);
+        if (SimulationConfig.isLegacy())
+            this.controller.start();
+        this.frame = new Frame(FrameSnapshot.EMPTY, camera.getView());
+        MouseAdapter mouse = new MouseAdapter() {
+            private int lastX, lastY;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                camera.pan(e.getX() - lastX, e.getY() - lastY);
+                lastX = e.getX();
+                lastY = e.getY();
+                publish();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                camera.zoomAt(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+                publish();
+            }
+        };
+        this.addMouseListener(mouse);
+        this.addMouseMotionListener(mouse);
+        this.addMouseWheelListener(mouse);
+        this.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                camera.resize(getWidth(), getHeight());
+                publish();
+            }
+        });
+        this.frameDirty = false;
+        this.frameCount = 0;
+        this.renderTimer = new Timer(Math.max(1, 1000 / SimulationConfig.getFramesPerSecond()), e -> {
+            if (loading != null)
+                loadNext(LOAD_BATCH);
+            if (frameDirty) {
+                frameDirty = false;
+                repaint();
+            }
+        });
+        this.renderTimer.start();
+        this.engine = new SimulationEngine(this, SimulationConfig.getTicksPerSecond());
+        if (!SimulationConfig.isLegacy())
+            this.engine.start();
     }
 
     /**
@@ -97,18 +222,18 @@ public class ZooPanel extends JPanel implements  ActionListener {
     {
         switch (e.getActionCommand()){
             case "Exit":
+                renderTimer.stop();
+                engine.stop();
                 System.exit(0);
                 threadpool.end();
                 break;
             case "Add Animal":
-                if(Animallist.size()==15)
+                if(SimulationConfig.isLegacy() && threadpool.isBounded() && Animallist.size()==15)
                     JOptionPane.showMessageDialog(this, "You cannot add more than 15 animals.", "Message", JOptionPane.WARNING_MESSAGE);
                 else{
-                    synchronized (this.Animallist) {
-                        new AddAnimalDialog(this, Animallist);
-                        if(Animallist.size()>10)
-                            JOptionPane.showMessageDialog(this, "The new animal enter in the queue", "Message", JOptionPane.WARNING_MESSAGE);
-                    }
+                    new AddAnimalDialog(this, Animallist);
+                    if(SimulationConfig.isLegacy() && threadpool.isBounded() && Animallist.size()>10)
+                        JOptionPane.showMessageDialog(this, "The new animal enter in the queue", "Message", JOptionPane.WARNING_MESSAGE);
                 }
                 break;
 
@@ -116,9 +241,7 @@ public class ZooPanel extends JPanel implements  ActionListener {
                 if(Animallist.size()==0)
                     JOptionPane.showMessageDialog(this, "There are no animals in the zoo.", "Message", JOptionPane.WARNING_MESSAGE);
                 else{
-                    synchronized (this.Animallist) {
-                        new ChangeColorDialog(this, Animallist);
-                    }
+                    new ChangeColorDialog(this, Animallist);
                 }
                 break;
 
@@ -126,10 +249,7 @@ public class ZooPanel extends JPanel implements  ActionListener {
                 if(Animallist.size()==0)
                     JOptionPane.showMessageDialog(this, "There are no animals in the zoo.", "Message", JOptionPane.WARNING_MESSAGE);
                 else {
-                    synchronized (this.Animallist) {
-                        for (int i = 0; i < Animallist.size(); i++)
-                            Animallist.get(i).setSuspended();
-                    }
+                    pauses.pause();
                 }
                 break;
 
@@ -137,25 +257,22 @@ public class ZooPanel extends JPanel implements  ActionListener {
                 if(Animallist.size()==0)
                     JOptionPane.showMessageDialog(this, "There are no animals in the zoo.", "Message", JOptionPane.WARNING_MESSAGE);
                 else {
-                    synchronized (this.Animallist) {
-                        for (int i = 0; i < Animallist.size(); i++)
-                            Animallist.get(i).setResumed();
-                    }
+                    pauses.resume();
                 }
                 break;
             case "Food": Object[] options = {"Lettuce", "Cabbage", "Meat"};
                 int foodchoice = JOptionPane.showOptionDialog(f, "Please choose food:", "Food for animal", JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, null);
                 if(foodchoice == 0)
-                    this.plant = Lettuce.getInstance(this);
+                    setplant(Lettuce.getInstance(this));
                 else if(foodchoice == 1)
-                    this.plant = Cabbage.getInstance(this);
+                    setplant(Cabbage.getInstance(this));
                 else if(foodchoice ==2)
-                    this.meat =Meat.getInstance(this);
-                repaint();
+                    setmeat(Meat.getInstance(this));
+                publish();
                 break;
 
             case "Info": JFrame infoframe = new JFrame("Info");
-                Info model = new Info(Animallist);
+                Info model = new Info(Animallist.snapshot());
                 JTable table = new JTable(model);
                 table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
                 table.setPreferredScrollableViewportSize(new Dimension(500, 100));
@@ -183,15 +300,18 @@ public class ZooPanel extends JPanel implements  ActionListener {
                 break;
 
             case "Clear":
-                synchronized (this.Animallist) {
-                    for (int i = 0; i < Animallist.size(); i++)
-                        Animallist.get(i).interrupt();
-                    this.Animallist.clear();
+                stopLoading();
+                for (Animal animal : Animallist.clear()) {
+                    animal.interrupt();
+                    animal.setGrid(null);
                 }
                 this.plant = null;
                 this.meat = null;
+                food.clear();
+                if (eventLog != null)
+                    eventLog.cleared();
                 threadpool.restart();
-                repaint();
+                publish();
                 break;
             case "Save":
                 saveSate();
@@ -217,59 +337,46 @@ public class ZooPanel extends JPanel implements  ActionListener {
      * The controller of the program, follow after all the user actions and update the program accordingly
      * Check if one animal can eat another one
      * Check if one animal can eat a plant or the meat
+     * @see InteractionPhase
      */
+    @Override
     public void manageZoo() {
-        repaint();
-        if (plant != null) {
-            synchronized (this.plant) {
-                for (int i=0;i<Animallist.size();i++) {
-                    Animal animal= Animallist.get(i);
-                    if (animal.calcDistance(plant.getLocation()) <= animal.geteatdistance() && (animal.getDiet().canEat(plant.getFoodType()))) {
-                        animal.eat(plant);
-                        animal.eatInc();
-                        plant = null;
-                        repaint();
-                        return;
-                    }
-                }
-            }
-        }
-        if (meat != null) {
-            synchronized (this.meat) {
-                for (int i=0;i<Animallist.size();i++) {
-                    Animal animal= Animallist.get(i);
-                    if (animal.calcDistance(meat.getLocation()) <= animal.geteatdistance() && (animal.getDiet().canEat(meat.getFoodType()))) {
-                        animal.eat(meat);
-                        animal.eatInc();
-                        meat = null;
-                        repaint();
-                        return;
-                    }
-                }
-            }
-        }
-        synchronized (this.Animallist) {
-            for (int i = 0; i < Animallist.size(); i++) {
-                Animal animalpreda = Animallist.get(i);
-                if(!animalpreda.getisalive())
-                    continue;
-                for (int j = 0; j < Animallist.size(); j++) {
-                    Animal animalpreay = Animallist.get(j);
-                    if(!animalpreay.getisalive())
-                        continue;
-                    if (animalpreda.equals(animalpreay))
-                        continue;
-                    if ((animalpreda.getDiet().canEat(animalpreay.getFoodType())) && (animalpreda.getWeight() > animalpreay.getWeight() * 2) && (animalpreda.calcDistance(animalpreay.getLocation()) < animalpreay.getSize())&&!animalpreda.getThreadSuspended()) {
-                        animalpreda.eat(animalpreay);
-                        animalpreda.eatInc();
-                        animalpreay.interrupt();
-                        Animallist.remove(Animallist.indexOf(animalpreay));
-                        repaint();
-                        return;
-                    }
-                }
-            }
+        InteractionPhase.run(this);
+    }
+
+
+    /**
+     * Publish the result of a tick : take an immutable snapshot of what has to be drawn
+     * Note : the panel is repainted by the render timer, at most framesPerSecond times in one second.
+     * Only the part of the world seen by the camera is taken. The sprites are drawn picture after picture, the
+     * food first, and the animals of one picture in the order of the zoo
+     * @see FrameSnapshot
+     */
+    @Override
+    public synchronized void publish() {
+        Camera.View view = camera.getView();
+        Rectangle visible = view.visible();
+        FrameSnapshot.Builder builder = new FrameSnapshot.Builder(visible);
+        food.forEachInside(visible.x - FOOD_MARGIN, visible.y - FOOD_MARGIN, visible.x + visible.width, visible.y + visible.height, item -> {
+            if (item.food() instanceof IDrawable drawable)
+                drawable.snapshot(builder);
+        });
+        List<Animal> seen = new ArrayList<Animal>();
+        int margin = grid.getCellSize();
+        grid.forEachInside(visible.x - margin, visible.y - margin, visible.x + visible.width + margin, visible.y + visible.height + margin, mobile -> {
+            Animal animal = (Animal) mobile;
+            if (animal.getisalive())
+                seen.add(animal);
+        });
+        seen.sort(Comparator.comparingInt(Animal::getSlot));
+        Animal previous = null;
+        for (Animal animal : seen) {
+            if (animal != previous)
+                animal.snapshot(builder);
+            previous = animal;
         }
+        frame = new Frame(builder.build(++frameCount), view);
+        frameDirty = true;
     }
 
 
@@ -290,19 +397,87 @@ public class ZooPanel extends JPanel implements  ActionListener {
 
     /**
      * Printing all the components in our frame
+     * Note : only the latest published snapshot is painted, with the view of the camera it was taken with.
+     * In raster mode the sprites are written in one image by the RasterRenderer
      * @param g the graphics context
      */
     @Override
     public void paintComponent(Graphics g){
         super.paintComponent(g);
-        if(plant!= null)
-            plant.drawObject(g);
-        if(meat!=null)
-            meat.drawObject(g);
-        if(Animallist.size()!=0)
-            for(int i = 0; i < Animallist.size(); i++)
-                if(Animallist.get(i).getisalive())
-                    Animallist.get(i).drawObject(g);
+        Frame shown = frame;
+        Graphics2D g2 = (Graphics2D) g;
+        if (background == 2)
+            paintTiles(g2, shown.view());
+        if (raster != null)
+            raster.paint(g2, shown.snapshot(), shown.view());
+        else
+            shown.snapshot().paint(g2, shown.view());
+    }
+
+
+    /**
+     * Draw the background image as tiles, only the tiles that are seen are drawn
+     * Note : a tile covers 800 x 600 units of the world, the size of the original zoo.
+     * The image is scaled once for the zoom and kept in a volatile image, then every tile is a plain copy
+     *
+     * @param g is the Graphics2D of the panel
+     * @param view is the Camera.View the tiles are seen with
+     */
+    private void paintTiles(Graphics2D g, Camera.View view) {
+        BufferedImage img = f.getImg();
+        if (img == null)
+            return;
+        double zoom = view.zoom();
+        int width = worldWidth, height = worldHeight;
+        int tw = (int) Math.ceil(TILE_WIDTH * zoom), th = (int) Math.ceil(TILE_HEIGHT * zoom);
+        Image scaled = (long) tw * th <= MAX_TILE_PIXELS ? tile(img, tw, th) : null;
+        Rectangle visible = view.visible();
+        Shape clip = g.getClip();
+        g.clipRect((int) Math.round(-view.x() * zoom), (int) Math.round(-view.y() * zoom), (int) Math.round(width * zoom), (int) Math.round(height * zoom));
+        int right = Math.min(width, visible.x + visible.width), bottom = Math.min(height, visible.y + visible.height);
+        for (int ty = Math.max(0, visible.y / TILE_HEIGHT); ty * TILE_HEIGHT < bottom; ty++)
+            for (int tx = Math.max(0, visible.x / TILE_WIDTH); tx * TILE_WIDTH < right; tx++) {
+                int sx = (int) Math.round((tx * TILE_WIDTH - view.x()) * zoom), sy = (int) Math.round((ty * TILE_HEIGHT - view.y()) * zoom);
+                if (scaled != null)
+                    g.drawImage(scaled, sx, sy, null);
+                else
+                    g.drawImage(img, sx, sy, tw, th, null);
+            }
+        g.setClip(clip);
+        if (tile != null && tile.contentsLost())
+            repaint();
+    }
+
+
+    /**
+     * Getter method for the background image scaled at the size of a tile
+     * Note : the image is kept in video memory when it can be, it is drawn again only when the zoom changes or
+     * when the screen lost it
+     *
+     * @param img is the BufferedImage of the background
+     * @param width is the width of a tile on the panel
+     * @param height is the height of a tile on the panel
+     * @return The scaled image, null if the panel cannot make a volatile image
+     */
+    private Image tile(BufferedImage img, int width, int height) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null)
+            return null;
+        int state = tile == null || tile.getWidth() != width || tile.getHeight() != height ? VolatileImage.IMAGE_INCOMPATIBLE : tile.validate(gc);
+        if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (tile != null)
+                tile.flush();
+            tile = gc.createCompatibleVolatileImage(width, height);
+            state = VolatileImage.IMAGE_RESTORED;
+        }
+        if (state == VolatileImage.IMAGE_RESTORED) {
+            Graphics2D g = tile.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(img, 0, 0, width, height, null);
+            g.dispose();
+        }
+        return tile;
     }
 
     /**
@@ -316,58 +491,376 @@ public class ZooPanel extends JPanel implements  ActionListener {
      * Getter method for the attribute meat
      * @return meat
      */
+    @Override
     public Meat getmeat(){return this.meat;}
 
     /**
      * Getter method for the attribute plant
      * @return plant
      */
+    @Override
     public Plant getplant(){return this.plant;}
 
+    /**
+     * Setter method for the attribute meat
+     * @param meat is the Meat of the zoo, null when it has been eaten
+     */
+    @Override
+    public void setmeat(Meat meat){
+        food.remove(this.meat);
+        this.meat = meat;
+        if (meat != null)
+            food.add(meat);
+        if (eventLog != null)
+            eventLog.meat(meat);
+    }
+
+    /**
+     * Setter method for the attribute plant
+     * @param plant is the Plant of the zoo, null when it has been eaten
+     */
+    @Override
+    public void setplant(Plant plant){
+        food.remove(this.plant);
+        this.plant = plant;
+        if (plant != null)
+            food.add(plant);
+        if (eventLog != null)
+            eventLog.plant(plant);
+    }
+
+    /**
+     * Getter method for the attribute food
+     * @return The FoodIndex of all the food of the zoo, the plant and the meat included
+     */
+    @Override
+    public FoodIndex getFood(){return food;}
+
+    /**
+     * Put a food in the zoo, it stays where it is until an animal eats it
+     * @param item is the food (a plant or a meat) to add
+     */
+    @Override
+    public <T extends IEdible & Ilocatable> void addFood(T item){
+        FoodIndex.Item added = food.add(item);
+        if (added != null && eventLog != null)
+            eventLog.food(added, true);
+    }
+
+    /**
+     * Remove a food from the zoo
+     * @param item is the food (a plant or a meat) to remove
+     * @return True if the food was in the zoo, else False
+     */
+    @Override
+    public boolean removeFood(IEdible item){
+        if (item != null && item == plant)
+            setplant(null);
+        else if (item != null && item == meat)
+            setmeat(null);
+        else {
+            FoodIndex.Item removed = food.remove(item);
+            if (removed != null && eventLog != null)
+                eventLog.food(removed, false);
+            return removed != null;
+        }
+        return true;
+    }
+
+    /**
+     * Getter method for the width of the world
+     * @return The width of the world, the panel may only show a part of it
+     */
+    @Override
+    public int getWorldWidth(){return worldWidth;}
+
+    /**
+     * Getter method for the height of the world
+     * @return The height of the world, the panel may only show a part of it
+     */
+    @Override
+    public int getWorldHeight(){return worldHeight;}
+
+    /**
+     * Getter method for the attribute camera
+     * @return The Camera that chooses the part of the world the panel shows
+     */
+    public Camera getCamera(){return camera;}
+
+    /**
+     * Getter method for the attribute grid
+     * @return The spatial grid that indexes the animals
+     */
+    @Override
+    public SpatialGrid getGrid(){return grid;}
+
+    /**
+     * The panel draws the animals so they need their images
+     * @return True
+     */
+    @Override
+    public boolean loadsImages(){return true;}
+
     public ThreadPool getThreadpool(){return threadpool;}
 
+    /**
+     * Getter method for the attribute engine
+     * @return The engine that advances the animals in tick mode
+     */
+    public SimulationEngine getEngine(){return engine;}
+
+    /**
+     * Getter method for a snapshot of the animals of the zoo
+     * Note : the snapshot can be iterated while the zoo changes, it is shared until an animal is added or removed
+     * @return The animals of the zoo
+     */
+    @Override
+    public List<Animal> getAnimals(){return Animallist.snapshot();}
+
+    /**
+     * Getter method for the attribute Animallist
+     * @return The AnimalRegistry that keeps the animals of the zoo
+     */
+    @Override
+    public AnimalRegistry getRegistry(){return Animallist;}
+
+    /**
+     * Remove an animal from the zoo
+     * @param animal is the Animal to remove
+     * @return True if the animal was in the zoo, else False
+     */
+    @Override
+    public boolean removeAnimal(Animal animal){
+        return Animallist.remove(animal);
+    }
+
+    /**
+     * Make an animal take part in the simulation
+     * Note : in tick mode the engine advances it, in legacy mode it runs its own loop in the thread pool.
+     * The animal is also indexed in the spatial grid used by manageZoo, and a Sleep of the zoo made before it is
+     * added does not stop it
+     * @param animal is the Animal to start
+     */
+    public void startAnimal(Animal animal){startAnimal(animal, pauses.getEpoch());}
+
+    /**
+     * Make an animal take part in the simulation as if it was added at an epoch of the pauses
+     * Note : the animals of a loaded file are stopped by the pauses saved in the file, even when they are built later
+     *
+     * @param animal is the Animal to start
+     * @param epoch is the epoch of the pauses the animal is added at
+     */
+    private void startAnimal(Animal animal, long epoch){
+        animal.setJoinEpoch(epoch);
+        grid.ensureCellSize(Math.max(animal.getSize(), animal.geteatdistance()));
+        animal.setGrid(grid);
+        if (eventLog != null)
+            eventLog.added(animal);
+        if (SimulationConfig.isLegacy())
+            threadpool.addtopoll(animal);
+        else
+            animal.setAlive(true);
+    }
+
+    @Override
     public ZooController getController(){return controller;}
 
+    @Override
+    public EventLog getEventLog(){return eventLog;}
+
+    @Override
+    public PauseControl getPauseControl(){return pauses;}
+
+    @Override
+    public SimulationClock getClock(){return clock;}
+
+    /**
+     * Save the state of the zoo
+     * Note : the unchanged animals are shared with the previous save, the oldest saves are dropped when the
+     * saves use more memory than the budget
+     */
     public void saveSate(){
+        loadNext(Integer.MAX_VALUE);
         ZooMemento state;
         try {
-            state = new ZooMemento(Animallist, meat, plant, background);
-            if(memento.size() == 3)
-                memento.remove(0);
-            memento.add(state);
+            state = new ZooMemento(getAnimals(), meat, plant, spawnedFood(), background, pauses.getRules(), memento.peekLast());
+            memento.addLast(state);
+            mementoBytes += state.getOwnBytes();
+            while (mementoBytes > SimulationConfig.getMementoBudget() && memento.size() > 1) {
+                mementoBytes -= memento.removeFirst().getOwnBytes();
+                mementoBytes += memento.peekFirst().rebase();
+            }
         }
         catch (CloneNotSupportedException e) {e.printStackTrace();}
     }
 
+    /**
+     * Restore the last saved state of the zoo
+     * Note : the live animals are updated in place, only the animals that are not in the saved state are stopped
+     * and only the missing animals are created again. The pauses and the food of the saved zoo are put back
+     */
     public void restoreState(){
-        synchronized (this.Animallist) {
-            for (int i = 0; i < Animallist.size(); i++)
-                Animallist.get(i).interrupt();
-            this.Animallist.clear();
+        stopLoading();
+        ZooMemento state = memento.removeLast();
+        mementoBytes -= state.getOwnBytes();
+        background = state.getbackground();
+        switch (background) {
+            case 0 -> this.f.setnone();
+            case 1 -> this.f.setgreen();
+            case 2 -> this.f.setimage();
         }
-        this.plant = null;
-        this.meat = null;
-        repaint();
+        HashSet<Long> alive = new HashSet<Long>();
+        for (Animal animal : getAnimals()) {
+            AnimalState saved = state.getAnimals().get(animal.getId());
+            if (saved == null) {
+                animal.interrupt();
+                animal.setGrid(null);
+                removeAnimal(animal);
+            }
+            else {
+                saved.applyTo(animal);
+                alive.add(animal.getId());
+            }
+        }
+        for (AnimalState saved : state.getAnimals().values())
+            if (!alive.contains(saved.getId())) {
+                Animal animal = saved.create(this);
+                Animallist.add(animal);
+                startAnimal(animal);
+            }
+        restoreFood(state.getFood());
+        setplant(state.getplant());
+        setmeat(state.getmeat());
+        if (state.getPauses() != null)
+            pauses.restore(state.getPauses());
+        else
+            pauses.clear();
+        publish();
+    }
+
+    /**
+     * Getter method for the food items of the zoo, the plant and the meat excepted
+     * @return The List of the food items, as they are saved
+     */
+    private List<ZooFile.Food> spawnedFood() {
+        ArrayList<ZooFile.Food> spawned = new ArrayList<ZooFile.Food>();
+        for (FoodIndex.Item item : food)
+            if (item.food() != plant && item.food() != meat)
+                spawned.add(ZooFile.Food.of(item));
+        return spawned;
+    }
 
-        background = memento.get(memento.size() - 1).getbackground();
+    /**
+     * Replace the food items of the zoo, the plant and the meat excepted, by saved ones
+     * Note : every removal and every addition is written in the event log
+     *
+     * @param saved is the List of the saved food items
+     */
+    private void restoreFood(List<ZooFile.Food> saved) {
+        ArrayList<IEdible> spawned = new ArrayList<IEdible>();
+        for (FoodIndex.Item item : food)
+            if (item.food() != plant && item.food() != meat)
+                spawned.add(item.food());
+        for (IEdible item : spawned)
+            removeFood(item);
+        for (ZooFile.Food item : saved)
+            item.addTo(this);
+    }
+
+    /**
+     * Write the state of the zoo in a save file
+     *
+     * @param file is the File to write
+     * @throws IOException if the file cannot be written
+     * @see ZooFile
+     */
+    public void saveToFile(File file) throws IOException {
+        loadNext(Integer.MAX_VALUE);
+        ZooFile.write(file, getAnimals(), meat, plant, spawnedFood(), background, worldWidth, worldHeight, pauses.getRules());
+    }
+
+    /**
+     * Replace the zoo by the zoo of a save file
+     * Note : the animals of the actual zoo are stopped. The numbers of all the animals of the file are copied in an
+     * entity store at once, then the render timer builds and starts the animals as views onto the store, a batch
+     * at every frame, so a large file does not freeze the window. The food items of the file replace the actual ones
+     *
+     * @param file is the File to read
+     * @throws IOException if the file cannot be read, is not a save file of the zoo or is a world of another size
+     * @see ZooFile
+     */
+    public void loadFromFile(File file) throws IOException {
+        ZooFile saved = ZooFile.open(file);
+        if (saved.getWorldWidth() != worldWidth || saved.getWorldHeight() != worldHeight)
+            throw new IOException("The file is a world of " + saved.getWorldWidth() + "x" + saved.getWorldHeight()
+                    + ", this zoo is " + worldWidth + "x" + worldHeight);
+        stopLoading();
+        for (Animal animal : getAnimals()) {
+            animal.interrupt();
+            animal.setGrid(null);
+            removeAnimal(animal);
+        }
+        loaded = new EntityStore(Math.max(1, saved.size()));
+        loadedIds = saved.loadInto(loaded);
+        loadedCount = 0;
+        loadedEpoch = pauses.getEpoch();
+        pauses.restore(saved.getPauses());
+        loading = saved;
+        loadNext(LOAD_BATCH);
+        restoreFood(saved.getFood());
+        Point at = saved.getPlantLocation();
+        Plant plant = null;
+        if (at != null)
+            plant = saved.getPlantType() == ZooFile.CABBAGE ? new Cabbage(this, at) : new Lettuce(this, at);
+        setplant(plant);
+        at = saved.getMeatLocation();
+        setmeat(at != null ? new Meat(this, at) : null);
+        background = saved.getbackground();
         switch (background) {
             case 0 -> this.f.setnone();
             case 1 -> this.f.setgreen();
             case 2 -> this.f.setimage();
         }
-        threadpool.restart();
-        ArrayList<Animal> restoredAnimallist = memento.get(memento.size()-1).getAnimalList();
-        for (int i = 0; i < restoredAnimallist.size(); i++)
-            Animallist.add(restoredAnimallist.get(i));
-        for (int i = 0; i < Animallist.size(); i++){
-            threadpool.addtopoll(Animallist.get(i));
-            Animallist.get(i).setLocation(Animallist.get(i).getLocation());
+        publish();
+    }
+
+    /**
+     * Build and start the next animals of the file being loaded
+     * Note : called on the EDT, the file stays loading until all its animals are built
+     *
+     * @param max is the largest number of animals to build
+     */
+    private void loadNext(int max) {
+        if (loading == null)
+            return;
+        int end = (int) Math.min(loadedIds.length, (long) loadedCount + max);
+        try {
+            for (; loadedCount < end; loadedCount++) {
+                Animal animal = loading.create(loadedCount, this, loaded, loadedIds[loadedCount]);
+                Animallist.add(animal);
+                startAnimal(animal, loadedEpoch);
             }
-        plant= memento.get(memento.size()-1).getplant();
-        meat = memento.get(memento.size()-1).getmeat();
-        memento.remove(memento.size()-1);
-        repaint();
+        }
+        catch (IOException e) {
+            stopLoading();
+            JOptionPane.showMessageDialog(this, "Cannot open the file\n" + e.getMessage());
+        }
+        if (loading != null && loadedCount == loadedIds.length)
+            stopLoading();
+        publish();
+    }
+
+    /**
+     * Forget the animals of the file being loaded that are not built yet
+     */
+    private void stopLoading() {
+        loading = null;
+        loadedIds = null;
+        loaded = null;
     }
 
-    public void setbackground(int nbr){this.background=nbr;}
+    public void setbackground(int nbr){
+        this.background=nbr;
+        repaint();
+    }
 }
@@ -3,6 +3,7 @@ package mobility;
 
 /**
  * An interface to describe the localisation
+ * Note : getX and getY read the location without creating a Point, the squared distances avoid the square root
  *
  * @version 17.0.2
  * @author Attias Zaccharie, Amar Yuval
@@ -10,4 +11,29 @@ package mobility;
 public interface Ilocatable {
     public Point getLocation();
     public boolean setLocation(Point p);
+    public int getX();
+    public int getY();
+
+    /**
+     * Getting coordinates and calculate the squared distance between them and the object
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return The squared distance
+     */
+    public default long distanceSquared(int x, int y) {
+        long dx = getX() - x, dy = getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Check if another object is close to the object
+     *
+     * @param other is the other Ilocatable object
+     * @param radius is the largest distance between the two objects
+     * @return True if the distance between the objects is at most the radius, else False
+     */
+    public default boolean isWithin(Ilocatable other, double radius) {
+        return distanceSquared(other.getX(), other.getY()) <= radius * radius;
+    }
 }
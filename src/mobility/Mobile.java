@@ -1,6 +1,10 @@
 package mobility;
 
-import java.util.Observable;
+import DesignPatterns.EventBus;
+import simulation.EntityStore;
+import simulation.SimulationConfig;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 
 /**
@@ -10,10 +14,17 @@ import java.util.Observable;
  * @author Attias Zaccharie, Amar Yuval
  * @see Ilocatable
  */
-public abstract class Mobile extends Observable implements Ilocatable {
-    private Point location;
+public abstract class Mobile implements Ilocatable {
+    private static final AtomicIntegerFieldUpdater<Mobile> PENDING = AtomicIntegerFieldUpdater.newUpdater(Mobile.class, "pending");
+    private volatile long position;
     private double totaldistance;
     private boolean flag;
+    private SpatialGrid grid;
+    private long cellKey;
+    protected EntityStore store;
+    protected int entityId = -1;
+    private EventBus bus;
+    private volatile int pending;
 
 
     /**
@@ -43,7 +54,7 @@ public abstract class Mobile extends Observable implements Ilocatable {
      * @param p Object Point that indicate a location
      * @return Distance between the two objects
      */
-    public double calcDistance(Point p) {return Math.sqrt(Math.pow(getLocation().getx() - p.getx(), 2) + (Math.pow(getLocation().gety() - p.gety(), 2)));}
+    public double calcDistance(Point p) {return Math.sqrt(distanceSquared(p.getx(), p.gety()));}
 
 
     /**
@@ -54,15 +65,28 @@ public abstract class Mobile extends Observable implements Ilocatable {
      * @param p Object Point that indicate a location
      * @return Distance made by the object (this)
      */
-    public double move(Point p)
+    public double move(Point p) {return move(p.getx(), p.gety());}
+
+
+    /**
+     * Getting coordinates, check if they are in the valid borders,
+     * If yes, then calculate the distance to them, and then relocate (this) to the new location
+     * And Finally add the distance traveled into the object totaldistance
+     * Note : nothing is allocated
+     *
+     * @param x is an Integer representing the new location on axis X
+     * @param y is an Integer representing the new location on axis Y
+     * @return Distance made by the object (this)
+     */
+    public double move(int x, int y)
     {
         flag = false;
-        double distance = calcDistance(p);
-        if (setLocation(p)) {
+        double distance = Math.sqrt(distanceSquared(x, y));
+        if (relocate(x, y)) {
             flag = true;
             addTotalDistance(distance);
-            setChanged();
-            notifyObservers();
+            if (bus != null)
+                bus.post(this);
             return distance;
         }
         return 0;
@@ -85,27 +109,200 @@ public abstract class Mobile extends Observable implements Ilocatable {
      * @return True if the location change, else False
      */
     @Override
-    public boolean setLocation(Point p) {
-        if (Point.checkBoundaries(p)) {
-            this.location = new Point(p);
-            return true;
+    public final boolean setLocation(Point p) {return setLocation(p.getx(), p.gety());}
+
+
+    /**
+     * Getting new coordinates, check if they are valid,
+     * if they are valid we change our location to them, else the object goes to (0,0)
+     * Note : the two coordinates are written at once, a reader never sees a half updated location
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return True if the location change, else False
+     */
+    public boolean setLocation(int x, int y) {return relocate(x, y);}
+
+
+    /**
+     * Change the location of the object, it is the common part of move and setLocation
+     * Note : the two coordinates are written at once, a reader never sees a half updated location
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return True if the location change, else False (the object goes to (0,0))
+     */
+    protected final boolean relocate(int x, int y) {
+        boolean valid = Point.checkBoundaries(x, y, getWorldWidth(), getWorldHeight());
+        if (!valid) {
+            x = 0;
+            y = 0;
         }
-        this.location = new Point(0,0);
-        return false;
+        if (store != null)
+            store.setPosition(entityId, x, y);
+        else
+            this.position = Point.pack(x, y);
+        if (grid != null)
+            grid.relocate(this);
+        return valid;
     }
 
 
     /**
      * Getter method for the attribute location
+     * Note : a new Point is created at every call, use getX and getY to avoid it
      *
      * @return The object location
      */
     @Override
     public Point getLocation() {
-        return this.location;
+        long p = getPosition();
+        return new Point(Point.unpackX(p), Point.unpackY(p));
+    }
+
+    /**
+     * Getter method for the packed location
+     * @return The location packed by Point.pack
+     */
+    public long getPosition() {
+        if (store != null)
+            return store.getPosition(entityId);
+        return this.position;
     }
 
+    /**
+     * Getter method for the location on axis X
+     * @return The object location on axis X
+     */
+    @Override
+    public int getX() {return store != null ? store.getX(entityId) : Point.unpackX(position);}
+
+    /**
+     * Getter method for the location on axis Y
+     * @return The object location on axis Y
+     */
+    @Override
+    public int getY() {return store != null ? store.getY(entityId) : Point.unpackY(position);}
+
+    /**
+     * Getting coordinates and calculate the squared distance between them and the object
+     * Note : the location is read once, so the two coordinates always belong to the same location
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return The squared distance
+     */
     @Override
+    public long distanceSquared(int x, int y) {
+        long p = getPosition();
+        long dx = Point.unpackX(p) - x, dy = Point.unpackY(p) - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Register the object in a spatial grid, or remove it from its actual grid
+     *
+     * @param grid is the SpatialGrid that indexes the object, null to leave the actual one
+     */
+    public void setGrid(SpatialGrid grid) {
+        if (this.grid == grid)
+            return;
+        if (this.grid != null)
+            this.grid.remove(this);
+        this.grid = grid;
+        if (grid != null)
+            grid.insert(this);
+    }
+
+
+    /**
+     * Getter method for the attribute grid
+     *
+     * @return The spatial grid that indexes the object
+     */
+    public SpatialGrid getGrid() {return this.grid;}
+
+    long getCellKey() {return this.cellKey;}
+
+    void setCellKey(long key) {this.cellKey = key;}
+
+
+    /**
+     * Setter method for the attribute bus
+     *
+     * @param bus is the EventBus that receives the moves of the object, null to stop posting them
+     */
+    public void setEventBus(EventBus bus) {this.bus = bus;}
+
+    /**
+     * Getter method for the attribute bus
+     *
+     * @return The EventBus that receives the moves of the object
+     */
+    public EventBus getEventBus() {return this.bus;}
+
+    /**
+     * Mark the object as having a pending event in its bus
+     *
+     * @return True if the object had no pending event, else False
+     */
+    public boolean markPending() {return PENDING.compareAndSet(this, 0, 1);}
+
+    /**
+     * Clear the pending event mark of the object
+     */
+    public void clearPending() {pending = 0;}
+
+
+    /**
+     * Getter method for the width of the world the object moves in
+     * @return The width of the configured world, an object that knows its world returns the width of that world
+     */
+    public int getWorldWidth() {return SimulationConfig.getWorldWidth();}
+
+    /**
+     * Getter method for the height of the world the object moves in
+     * @return The height of the configured world, an object that knows its world returns the height of that world
+     */
+    public int getWorldHeight() {return SimulationConfig.getWorldHeight();}
+
+
+    /**
+     * Getter method for the attribute store
+     *
+     * @return The entity store the object is a view onto, null if the object keeps its own state
+     */
+    public EntityStore getStore() {return this.store;}
+
+    /**
+     * Getter method for the attribute entityId
+     *
+     * @return The id of the object in its entity store, -1 if it is not bound to a store
+     */
+    public int getEntityId() {return this.entityId;}
+
+
+    /**
+     * Clone method
+     * Note : the copy is not registered in the spatial grid of the original and keeps its own state
+     */
+    @Override
+    protected Object clone() throws CloneNotSupportedException {
+        Mobile copy = (Mobile) super.clone();
+        copy.grid = null;
+        copy.pending = 0;
+        if (store != null) {
+            copy.position = getPosition();
+            copy.store = null;
+            copy.entityId = -1;
+        }
+        return copy;
+    }
+
+    /**
+     * Check if the last call to move changed the location
+     * @return True if the object moved, else False
+     */
     public boolean hasChanged() {
         return flag;
     }
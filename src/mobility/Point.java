@@ -1,8 +1,11 @@
 package mobility;
 
+import simulation.SimulationConfig;
+
 
 /**
  * A class to define position on a two-dimensional axis
+ * Note : the valid locations go from 0 to the size of the world set in SimulationConfig
  *
  * @version 17.0.2
  * @author Attias Zaccharie, Amar Yuval
@@ -11,7 +14,7 @@ public class Point {
     private int x;
     private int y;
 
-    static private final int xmax = 800,ymax=600,xmin=0,ymin=0;
+    static private final int xmin=0,ymin=0;
 
 
     /**
@@ -47,7 +50,7 @@ public class Point {
      */
     public boolean setpoint(int x,int y)
     {
-        if((xmin<=x && x<=xmax)&&(ymin<=y && y<=ymax))
+        if(checkBoundaries(x, y))
         {
             this.x=x;
             this.y=y;
@@ -85,7 +88,54 @@ public class Point {
      * @param pointToCheck Object Point we want to check
      * @return True if the point in the valid border, else False
      */
-    public static boolean checkBoundaries(Point pointToCheck){return (xmin<= pointToCheck.getx() && pointToCheck.getx()<=xmax)&&(ymin<= pointToCheck.gety() && pointToCheck.gety() <=ymax);}
+    public static boolean checkBoundaries(Point pointToCheck){return checkBoundaries(pointToCheck.getx(), pointToCheck.gety());}
+
+
+    /**
+     * Check if the received coordinates are in the valid axis border of the configured world, and return the answer
+     * Note : an object that knows its world checks its location with the size of that world
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return True if the coordinates are in the valid border, else False
+     */
+    public static boolean checkBoundaries(int x, int y){return checkBoundaries(x, y, SimulationConfig.getWorldWidth(), SimulationConfig.getWorldHeight());}
+
+
+    /**
+     * Check if the received coordinates are in the border of a world, and return the answer
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @param width is the width of the world
+     * @param height is the height of the world
+     * @return True if the coordinates are in the valid border, else False
+     */
+    public static boolean checkBoundaries(int x, int y, int width, int height){return (xmin<=x && x<=width)&&(ymin<=y && y<=height);}
+
+
+    /**
+     * Pack two coordinates in one long, so that they can be read and written at once
+     *
+     * @param x is an Integer representing a location on axis X
+     * @param y is an Integer representing a location on axis Y
+     * @return The packed location
+     */
+    public static long pack(int x, int y){return ((long) x << 32) | (y & 0xffffffffL);}
+
+    /**
+     * Getter method for the location on axis X of a packed location
+     * @param packed is a location packed by pack
+     * @return The location on axis X
+     */
+    public static int unpackX(long packed){return (int) (packed >> 32);}
+
+    /**
+     * Getter method for the location on axis Y of a packed location
+     * @param packed is a location packed by pack
+     * @return The location on axis Y
+     */
+    public static int unpackY(long packed){return (int) packed;}
 
 
     public String toString() {
@@ -0,0 +1,216 @@
+package mobility;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+
+/**
+ * A class representing a uniform grid that indexes the mobile objects by their location
+ * Note : the grid is updated incrementally every time a registered object changes its location,
+ * a proximity query then only visits the cells around the searched point instead of every object
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see Mobile
+ */
+public class SpatialGrid {
+    private final Map<Long, Set<Mobile>> cells;
+    private final ReentrantReadWriteLock lock;
+    private volatile int cellSize;
+
+
+    /**
+     * The constructor of the SpatialGrid object, sets the attributes of the object
+     *
+     * @param cellSize is an Integer representing the side of a cell (greater than zero)
+     */
+    public SpatialGrid(int cellSize) {
+        this.cells = new ConcurrentHashMap<Long, Set<Mobile>>();
+        this.lock = new ReentrantReadWriteLock();
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+
+    /**
+     * Getter method for the attribute cellSize
+     *
+     * @return The side of a cell
+     */
+    public int getCellSize() {return this.cellSize;}
+
+
+    /**
+     * Make sure that a query with the given radius only needs the neighbouring cells
+     * Note : if the radius is greater than the actual cell size, all the objects are re-indexed with the new size
+     *
+     * @param radius is an Integer representing the largest interaction distance
+     */
+    public void ensureCellSize(int radius) {
+        if (radius <= cellSize)
+            return;
+        lock.writeLock().lock();
+        try {
+            if (radius <= cellSize)
+                return;
+            Collection<Set<Mobile>> old = cells.values();
+            Mobile[] all = old.stream().flatMap(Set::stream).toArray(Mobile[]::new);
+            cells.clear();
+            cellSize = radius;
+            for (Mobile mobile : all)
+                add(mobile, keyOf(mobile));
+        }
+        finally {lock.writeLock().unlock();}
+    }
+
+
+    /**
+     * Add an object in the cell of its actual location
+     *
+     * @param mobile is the Mobile object to add
+     */
+    void insert(Mobile mobile) {
+        lock.readLock().lock();
+        try {add(mobile, keyOf(mobile));}
+        finally {lock.readLock().unlock();}
+    }
+
+
+    /**
+     * Remove an object from the grid
+     *
+     * @param mobile is the Mobile object to remove
+     */
+    void remove(Mobile mobile) {
+        lock.readLock().lock();
+        try {
+            Set<Mobile> cell = cells.get(mobile.getCellKey());
+            if (cell != null)
+                cell.remove(mobile);
+        }
+        finally {lock.readLock().unlock();}
+    }
+
+
+    /**
+     * Move an object to the cell of its new location, nothing happens if it stays in the same cell
+     * Note : the cell is computed under the lock, so the size of the cells cannot change in between
+     *
+     * @param mobile is the Mobile object that changed its location
+     */
+    void relocate(Mobile mobile) {
+        lock.readLock().lock();
+        try {
+            long key = keyOf(mobile);
+            if (key == mobile.getCellKey())
+                return;
+            Set<Mobile> cell = cells.get(mobile.getCellKey());
+            if (cell != null)
+                cell.remove(mobile);
+            add(mobile, key);
+        }
+        finally {lock.readLock().unlock();}
+    }
+
+
+    /**
+     * Collect the objects of all the cells that overlap the square around a point
+     * Note : the result can contain objects that are further than the radius, the caller checks the exact distance
+     *
+     * @param x is an Integer representing the location on axis X
+     * @param y is an Integer representing the location on axis Y
+     * @param radius is an Integer representing the half side of the searched square
+     * @param out is the Collection that receives the candidates
+     */
+    public void query(int x, int y, int radius, Collection<? super Mobile> out) {
+        int size = cellSize;
+        int minx = Math.floorDiv(x - radius, size), maxx = Math.floorDiv(x + radius, size);
+        int miny = Math.floorDiv(y - radius, size), maxy = Math.floorDiv(y + radius, size);
+        for (int cx = minx; cx <= maxx; cx++)
+            for (int cy = miny; cy <= maxy; cy++) {
+                Set<Mobile> cell = cells.get(key(cx, cy));
+                if (cell != null)
+                    out.addAll(cell);
+            }
+    }
+
+
+    /**
+     * Visit the objects of all the cells that overlap the square around a point, without copying them
+     * Note : the cells may change during the visit, an object that moves at the same time may be missed or seen twice
+     *
+     * @param x is an Integer representing the location on axis X
+     * @param y is an Integer representing the location on axis Y
+     * @param radius is an Integer representing the half side of the searched square
+     * @param visitor is the Consumer called with each candidate
+     */
+    public void forEachNear(int x, int y, int radius, Consumer<? super Mobile> visitor) {
+        int size = cellSize;
+        int minx = Math.floorDiv(x - radius, size), maxx = Math.floorDiv(x + radius, size);
+        int miny = Math.floorDiv(y - radius, size), maxy = Math.floorDiv(y + radius, size);
+        for (int cx = minx; cx <= maxx; cx++)
+            for (int cy = miny; cy <= maxy; cy++) {
+                Set<Mobile> cell = cells.get(key(cx, cy));
+                if (cell != null)
+                    for (Mobile mobile : cell)
+                        visitor.accept(mobile);
+            }
+    }
+
+
+    /**
+     * Visit the objects of all the cells that overlap a rectangle, without copying them
+     * Note : when the rectangle covers more cells than the grid has, only the cells of the grid are visited.
+     * The result can contain objects that are outside the rectangle, the caller checks the exact bounds
+     *
+     * @param minX is an Integer representing the left side of the rectangle
+     * @param minY is an Integer representing the top side of the rectangle
+     * @param maxX is an Integer representing the right side of the rectangle
+     * @param maxY is an Integer representing the bottom side of the rectangle
+     * @param visitor is the Consumer called with each candidate
+     */
+    public void forEachInside(int minX, int minY, int maxX, int maxY, Consumer<? super Mobile> visitor) {
+        int size = cellSize;
+        int minx = Math.floorDiv(minX, size), maxx = Math.floorDiv(maxX, size);
+        int miny = Math.floorDiv(minY, size), maxy = Math.floorDiv(maxY, size);
+        if ((long) (maxx - minx + 1) * (maxy - miny + 1) > cells.size()) {
+            for (Map.Entry<Long, Set<Mobile>> cell : cells.entrySet()) {
+                long key = cell.getKey();
+                int cx = (int) (key >> 32), cy = (int) key;
+                if (minx <= cx && cx <= maxx && miny <= cy && cy <= maxy)
+                    for (Mobile mobile : cell.getValue())
+                        visitor.accept(mobile);
+            }
+            return;
+        }
+        for (int cx = minx; cx <= maxx; cx++)
+            for (int cy = miny; cy <= maxy; cy++) {
+                Set<Mobile> cell = cells.get(key(cx, cy));
+                if (cell != null)
+                    for (Mobile mobile : cell)
+                        visitor.accept(mobile);
+            }
+    }
+
+
+    /**
+     * Getting an object and calculate the key of the cell of its location
+     *
+     * @param mobile is the Mobile object
+     * @return The key of the cell
+     */
+    private long keyOf(Mobile mobile) {
+        long position = mobile.getPosition();
+        return key(Math.floorDiv(Point.unpackX(position), cellSize), Math.floorDiv(Point.unpackY(position), cellSize));
+    }
+
+    private static long key(int cx, int cy) {return ((long) cx << 32) | (cy & 0xffffffffL);}
+
+    private void add(Mobile mobile, long key) {
+        mobile.setCellKey(key);
+        cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(mobile);
+    }
+}
@@ -1,6 +1,7 @@
 package plants;
 
-import graphics.ZooPanel;
+import mobility.Point;
+import simulation.IWorld;
 import utilities.MessageUtility;
 
 /**
@@ -15,15 +16,26 @@ public class Cabbage extends Plant {
 
 	/**
 	 * Constructor of the object Cabbage
-	 * @param pan A Zoopanel that represent the parent panel of the Cabbage
+	 * @param pan A IWorld that represent the world of the Cabbage
 	 */
-	private Cabbage(ZooPanel pan){
+	private Cabbage(IWorld pan){
 		super(pan);
 		this.loadImages("cabbage.png");
 		MessageUtility.logConstractor("Cabbage", "Cabbage");
 	}
 
-	public static Cabbage getInstance(ZooPanel pan){
+	/**
+	 * Constructor of the object Cabbage : a cabbage of its own, that is not the one at the centre of the world
+	 * @param pan A IWorld that represent the world of the Cabbage
+	 * @param location A Point that represent the location of the Cabbage
+	 */
+	public Cabbage(IWorld pan, Point location){
+		super(pan, location);
+		this.loadImages("cabbage.png");
+		MessageUtility.logConstractor("Cabbage", "Cabbage");
+	}
+
+	public static Cabbage getInstance(IWorld pan){
 		if(instance == null)
 			instance = new Cabbage(pan);
 		return instance;
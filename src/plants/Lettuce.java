@@ -1,6 +1,7 @@
 package plants;
 
-import graphics.ZooPanel;
+import mobility.Point;
+import simulation.IWorld;
 import utilities.MessageUtility;
 
 /**
@@ -15,15 +16,26 @@ public class Lettuce extends Plant {
 
 	/**
 	 * Constructor of the object Lettuce
-	 * @param pan A Zoopanel that represent the parent panel of the Lettuce
+	 * @param pan A IWorld that represent the world of the Lettuce
 	 */
-	private Lettuce(ZooPanel pan){
+	private Lettuce(IWorld pan){
 		super(pan);
 		this.loadImages("lettuce.png");
 		MessageUtility.logConstractor("Lettuce", "Lettuce");
 	}
 
-	public static Lettuce getInstance(ZooPanel pan){
+	/**
+	 * Constructor of the object Lettuce : a lettuce of its own, that is not the one at the centre of the world
+	 * @param pan A IWorld that represent the world of the Lettuce
+	 * @param location A Point that represent the location of the Lettuce
+	 */
+	public Lettuce(IWorld pan, Point location){
+		super(pan, location);
+		this.loadImages("lettuce.png");
+		MessageUtility.logConstractor("Lettuce", "Lettuce");
+	}
+
+	public static Lettuce getInstance(IWorld pan){
 		if(instance == null)
 			instance = new Lettuce(pan);
 		return instance;
@@ -2,21 +2,21 @@ package plants;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import food.EFoodType;
 import food.IEdible;
+import graphics.FrameSnapshot;
 import graphics.IDrawable;
-import graphics.ZooPanel;
+import graphics.SpriteCache;
+import simulation.IWorld;
+import simulation.RandomService;
 import mobility.Ilocatable;
 import mobility.Point;
 import privateutil.Meat;
 import utilities.MessageUtility;
 
-import javax.imageio.ImageIO;
-
 /**
  * Abstract class that defines the attributes of the plants
  *
@@ -26,23 +26,24 @@ import javax.imageio.ImageIO;
  */
 public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 {
+	private static final AtomicLong NEXT_ID = new AtomicLong();
+	private final long id = NEXT_ID.incrementAndGet();
 	private int height;
 	private Point location;
 	private int weight;
 	private BufferedImage img;
-	private ZooPanel pan;
+	private IWorld pan;
 	private String col;
 
 	/**
 	 * Constructor of the object Plant : it sets the attributes of the object
 	 * Note: the plants have an initial location, an initial height and an initial weight
-	 * @param pan A Zoopanel that represent the parent panel of the Plant
+	 * @param pan A IWorld that represent the world of the Plant
 	 */
-	public Plant(ZooPanel pan) {
-		Random rand = new Random();
+	public Plant(IWorld pan) {
 		this.height = 25;
 		this.weight = 25;
-		this.location = new Point(pan.getWidth()/2,pan.getHeight()/2);
+		this.location = new Point(pan.getWorldWidth()/2,pan.getWorldHeight()/2);
 		MessageUtility.logConstractor("Plant", "Plant");
 		this.col = "Natural";
 		this.pan=pan;
@@ -50,10 +51,22 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 
 	/**
 	 * Constructor of the object Plant : it sets the attributes of the object
-	 * Note: the plants have an initial location (30,12), an initial height (30cm) and an initial weight (12g)
+	 * Note: the plant grows at the given location instead of the centre of the world
+	 * @param pan A IWorld that represent the world of the Plant
+	 * @param location A Point that represent the location of the Plant
+	 */
+	public Plant(IWorld pan, Point location) {
+		this(pan);
+		this.location = location;
+	}
+
+	/**
+	 * Constructor of the object Plant : it sets the attributes of the object
+	 * Note: the plants have an initial location (30,12), an initial height (30cm) and an initial weight (12g),
+	 * drawn from the stream of the plant, derived from the seed of the simulation and the id of the plant
 	 */
 	public Plant() {
-		Random rand = new Random();
+		SplittableRandom rand = RandomService.forEntity("Plant", id);
 		int x = rand.nextInt(30);
 		int y = rand.nextInt(12);
 		this.location = new Point(x, y);
@@ -65,15 +78,15 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 
 	/**
 	 * load image method for the attribute img
-	 * Note : catch error from IOException if cannot load the image
+	 * Note : the image is shared with the other plants of the same type
 	 *
 	 * @param nm is a String representing the name animal type
 	 */
 
 	public void loadImages(String nm) {
-		try { img = ImageIO.read(new File(PICTURE_PATH + nm)); }
-		catch (IOException e) { System.out.println("Cannot load image");
-			System.out.println(e.toString());}
+		if (pan != null && !pan.loadsImages())
+			return;
+		img = SpriteCache.get(nm);
 	}
 
 
@@ -83,7 +96,17 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 	 * @param g is a Graphics object that return from repaint to paintComponent
 	 */
 	public void drawObject (Graphics g) {
-		g.drawImage(img, getLocation().getx(), getLocation().gety(), this.getHeight(), this.getHeight(), pan);
+		g.drawImage(SpriteCache.getScaled(img, this.getHeight(), this.getHeight()), getLocation().getx(), getLocation().gety(), null);
+	}
+
+	/**
+	 * Add the image of the plant to a frame snapshot
+	 *
+	 * @param frame is the FrameSnapshot.Builder of the frame being built
+	 */
+	public void snapshot (FrameSnapshot.Builder frame) {
+		Point p = getLocation();
+		frame.add(img, p.getx(), p.gety(), this.getHeight(), this.getHeight());
 	}
 
 	/**
@@ -105,6 +128,13 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 	}
 
 
+	/**
+	 * Getter method for the attribute id
+	 * Note : the ids of the plants are apart from the ids of the animals
+	 * @return The id of the plant
+	 */
+	public long getId() {return this.id;}
+
 	/**
 	 * Getter method for the attribute height
 	 * @return The object's height
@@ -126,6 +156,20 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 		return location;
 	}
 
+	/**
+	 * Getter method for the location on axis X
+	 * @return The object's location on axis X
+	 */
+	@Override
+	public int getX() {return location.getx();}
+
+	/**
+	 * Getter method for the location on axis Y
+	 * @return The object's location on axis Y
+	 */
+	@Override
+	public int getY() {return location.gety();}
+
 
 	/**
 	 * Getter method for the attribute weight
@@ -166,7 +210,8 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 	 */
 	@Override
 	public boolean setLocation(Point newLocation) {
-		boolean isSuccess = Point.checkBoundaries(newLocation);
+		boolean isSuccess = pan != null ? Point.checkBoundaries(newLocation.getx(), newLocation.gety(), pan.getWorldWidth(), pan.getWorldHeight())
+				: Point.checkBoundaries(newLocation);
 		if (isSuccess) {
 			this.location = newLocation;
 		}
@@ -211,7 +256,7 @@ public abstract class Plant implements IEdible, Ilocatable, IDrawable, Cloneable
 		Plant copy = (Plant)super.clone();
 		copy.height = 25;
 		copy.weight = 25;
-		copy.location = new Point(pan.getWidth()/2,pan.getHeight()/2);
+		copy.location = new Point(pan.getWorldWidth()/2,pan.getWorldHeight()/2);
 		MessageUtility.logConstractor("Plant", "Plant");
 		copy.col = "Natural";
 		copy.pan=pan;
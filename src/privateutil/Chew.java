@@ -1,7 +1,7 @@
 package privateutil;
 
 import animals.Animal;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 
 
@@ -25,9 +25,9 @@ public abstract class Chew extends Animal {
      * @param verticalspeed A int that represent the vertical speed of the Chew
      * @param weight A Double that represent the animal's weight
      * @param animalColor A String that represent the color of the Chew image
-     * @param pan A Zoopanel that represent the parent panel of the Chew
+     * @param pan A IWorld that represent the world of the Chew
      */
-    public Chew (String name, Point location, int animalSize, int horizontalspeed, int verticalspeed, double weight, String animalColor, ZooPanel pan) {
+    public Chew (String name, Point location, int animalSize, int horizontalspeed, int verticalspeed, double weight, String animalColor, IWorld pan) {
         super(name,location, animalSize, horizontalspeed, verticalspeed, weight, animalColor,pan);
     }
 
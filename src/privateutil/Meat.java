@@ -3,8 +3,10 @@ package privateutil;
 import animals.Animal;
 import food.EFoodType;
 import food.IEdible;
+import graphics.FrameSnapshot;
 import graphics.IDrawable;
-import graphics.ZooPanel;
+import graphics.SpriteCache;
+import simulation.IWorld;
 import mobility.Ilocatable;
 import mobility.Point;
 import plants.Cabbage;
@@ -16,7 +18,6 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.Random;
 
 public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
 {
@@ -25,24 +26,34 @@ public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
     private Point location;
     private int weight;
     private Image img;
-    private ZooPanel pan;
+    private IWorld pan;
     private String col;
 
     /**
      * Constructor of the object Meat : it sets the attributes of the object
      * Note: the meat have an initial location, an initial height and an initial weight
-     * @param pan A Zoopanel that represent the parent panel of the Meat
+     * @param pan A IWorld that represent the world of the Meat
      */
-    private Meat(ZooPanel pan) {
+    private Meat(IWorld pan) {
         this.height = 25;
         this.weight = 25;
-        this.location = new Point(pan.getWidth()/2,pan.getHeight()/2);
+        this.location = new Point(pan.getWorldWidth()/2,pan.getWorldHeight()/2);
         MessageUtility.logConstractor("Meat", "Meat");
         this.col = "Natural";
         this.pan=pan;
         loadImages("meat.gif");
     }
 
+    /**
+     * Constructor of the object Meat : a meat of its own, that is not the one at the centre of the world
+     * @param pan A IWorld that represent the world of the Meat
+     * @param location A Point that represent the location of the Meat
+     */
+    public Meat(IWorld pan, Point location) {
+        this(pan);
+        this.location = location;
+    }
+
 
     /**
      * load image method for the attribute img
@@ -50,7 +61,9 @@ public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
      */
 
     public void loadImages(String nm) {
-        this.img = new ImageIcon(PICTURE_PATH + nm).getImage();
+        if (pan != null && !pan.loadsImages())
+            return;
+        this.img = SpriteCache.get(nm);
     }
 
 
@@ -60,7 +73,16 @@ public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
      */
 
     public void drawObject (Graphics g) {
-        g.drawImage(img, getLocation().getx(), getLocation().gety(), this.getHeight(), this.getHeight(), pan);
+        g.drawImage(SpriteCache.getScaled(img, this.getHeight(), this.getHeight()), getLocation().getx(), getLocation().gety(), null);
+    }
+
+    /**
+     * Add the image of the meat to a frame snapshot
+     * @param frame is the FrameSnapshot.Builder of the frame being built
+     */
+    public void snapshot (FrameSnapshot.Builder frame) {
+        Point p = getLocation();
+        frame.add(img, p.getx(), p.gety(), this.getHeight(), this.getHeight());
     }
 
     /**
@@ -103,6 +125,20 @@ public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
         return location;
     }
 
+    /**
+     * Getter method for the location on axis X
+     * @return The object's location on axis X
+     */
+    @Override
+    public int getX() {return location.getx();}
+
+    /**
+     * Getter method for the location on axis Y
+     * @return The object's location on axis Y
+     */
+    @Override
+    public int getY() {return location.gety();}
+
 
     /**
      * Getter method for the attribute weight
@@ -142,7 +178,8 @@ public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
      */
     @Override
     public boolean setLocation(Point newLocation) {
-        boolean isSuccess = Point.checkBoundaries(newLocation);
+        boolean isSuccess = pan != null ? Point.checkBoundaries(newLocation.getx(), newLocation.gety(), pan.getWorldWidth(), pan.getWorldHeight())
+                : Point.checkBoundaries(newLocation);
         if (isSuccess) {
             this.location = newLocation;
         }
@@ -179,7 +216,7 @@ public class Meat implements IEdible, Ilocatable, IDrawable, Cloneable
         return "[" + this.getClass().getSimpleName() + "] ";
     }
 
-    public static Meat getInstance(ZooPanel pan){
+    public static Meat getInstance(IWorld pan){
         if(instance == null)
             instance = new Meat(pan);
         return instance;
@@ -1,7 +1,7 @@
 package privateutil;
 
 import animals.Animal;
-import graphics.ZooPanel;
+import simulation.IWorld;
 import mobility.Point;
 
 
@@ -24,9 +24,9 @@ public abstract class Roar extends Animal {
      * @param verticalspeed A int that represent the vertical speed of the Roar
      * @param weight A Double that represent the animal's weight
      * @param animalColor A String that represent the color of the Roar image
-     * @param pan A Zoopanel that represent the parent panel of the Roar
+     * @param pan A IWorld that represent the world of the Roar
      */
-    public Roar (String name, Point location, int animalSize, int horizontalspeed, int verticalspeed, double weight, String animalColor, ZooPanel pan) {
+    public Roar (String name, Point location, int animalSize, int horizontalspeed, int verticalspeed, double weight, String animalColor, IWorld pan) {
         super(name,location, animalSize, horizontalspeed, verticalspeed, weight, animalColor, pan);
     }
 
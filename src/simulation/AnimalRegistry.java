@@ -0,0 +1,220 @@
+package simulation;
+
+import animals.Animal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * A concurrent registry of the animals of the zoo
+ * Note : every animal gets a slot, the freed slots are kept in a free-list so adding and removing an animal are O(1).
+ * Writers are serialized among themselves but never block the readers : iterating the registry reads the slots
+ * without any lock, and the snapshot list is rebuilt only when the registry has changed since the last one
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see IWorld
+ */
+public class AnimalRegistry implements Iterable<Animal> {
+    private static final int INITIAL_CAPACITY = 64;
+    private final Object writeLock = new Object();
+    private volatile AtomicReferenceArray<Animal> slots;
+    private volatile int highWater;
+    private volatile int size;
+    private volatile long version;
+    private volatile Snapshot snapshot;
+    private int[] free;
+    private int freeCount;
+
+
+    /**
+     * An immutable list of the animals, tagged with the version of the registry it was built from
+     */
+    private record Snapshot(long version, List<Animal> animals) {}
+
+
+    /**
+     * The constructor of the AnimalRegistry object, sets the attributes of the object
+     */
+    public AnimalRegistry() {
+        this.slots = new AtomicReferenceArray<Animal>(INITIAL_CAPACITY);
+        this.free = new int[INITIAL_CAPACITY];
+        this.freeCount = 0;
+        this.highWater = 0;
+        this.size = 0;
+        this.version = 0;
+        this.snapshot = new Snapshot(0, Collections.emptyList());
+    }
+
+
+    /**
+     * Add an animal to the registry, the animal takes the last freed slot if there is one
+     *
+     * @param animal is the Animal to add
+     * @return The slot given to the animal, or its current slot if it was already registered
+     */
+    public int add(Animal animal) {
+        synchronized (writeLock) {
+            AtomicReferenceArray<Animal> array = slots;
+            int slot = animal.getSlot();
+            if (slot >= 0 && slot < highWater && array.get(slot) == animal)
+                return slot;
+            if (freeCount > 0)
+                slot = free[--freeCount];
+            else {
+                slot = highWater;
+                if (slot == array.length()) {
+                    AtomicReferenceArray<Animal> grown = new AtomicReferenceArray<Animal>(array.length() * 2);
+                    for (int i = 0; i < slot; i++)
+                        grown.set(i, array.get(i));
+                    slots = array = grown;
+                }
+                highWater = slot + 1;
+            }
+            animal.setSlot(slot);
+            array.set(slot, animal);
+            size++;
+            version++;
+            return slot;
+        }
+    }
+
+
+    /**
+     * Remove an animal from the registry, its slot goes back to the free-list
+     *
+     * @param animal is the Animal to remove
+     * @return True if the animal was in the registry, else False
+     */
+    public boolean remove(Animal animal) {
+        synchronized (writeLock) {
+            int slot = animal.getSlot();
+            if (slot < 0 || slot >= highWater || slots.get(slot) != animal)
+                return false;
+            slots.set(slot, null);
+            animal.setSlot(-1);
+            if (freeCount == free.length) {
+                int[] grown = new int[free.length * 2];
+                System.arraycopy(free, 0, grown, 0, freeCount);
+                free = grown;
+            }
+            free[freeCount++] = slot;
+            size--;
+            version++;
+            return true;
+        }
+    }
+
+
+    /**
+     * Remove every animal from the registry
+     *
+     * @return The list of the animals that were removed
+     */
+    public List<Animal> clear() {
+        synchronized (writeLock) {
+            List<Animal> removed = snapshot();
+            AtomicReferenceArray<Animal> array = slots;
+            for (int i = 0; i < highWater; i++) {
+                Animal animal = array.get(i);
+                if (animal != null)
+                    animal.setSlot(-1);
+            }
+            slots = new AtomicReferenceArray<Animal>(INITIAL_CAPACITY);
+            free = new int[INITIAL_CAPACITY];
+            freeCount = 0;
+            highWater = 0;
+            size = 0;
+            version++;
+            return removed;
+        }
+    }
+
+
+    /**
+     * Getter method for the animal kept in a slot
+     *
+     * @param slot is the index of the slot
+     * @return The Animal in the slot, null if the slot is free
+     */
+    public Animal get(int slot) {
+        AtomicReferenceArray<Animal> array = slots;
+        return slot >= 0 && slot < array.length() ? array.get(slot) : null;
+    }
+
+    /**
+     * Getter method for the number of animals in the registry
+     * @return The number of animals
+     */
+    public int size() {return size;}
+
+    /**
+     * Check if the registry holds no animal
+     * @return True if the registry is empty, else False
+     */
+    public boolean isEmpty() {return size == 0;}
+
+
+    /**
+     * Getter method for an immutable list of the animals in the registry
+     * Note : the list is shared until the registry changes, so calling it every frame costs nothing when no animal
+     * was added or removed. It never takes the lock of the writers
+     *
+     * @return An unmodifiable List of the animals, in the order of their slots
+     */
+    public List<Animal> snapshot() {
+        long current = version;
+        Snapshot last = snapshot;
+        if (last.version() == current)
+            return last.animals();
+        ArrayList<Animal> animals = new ArrayList<Animal>(size);
+        for (Animal animal : this)
+            animals.add(animal);
+        List<Animal> view = Collections.unmodifiableList(animals);
+        snapshot = new Snapshot(current, view);
+        return view;
+    }
+
+
+    /**
+     * A lock-free iterator over the slots of the registry
+     * Note : it is weakly consistent, it never fails because of a concurrent change but may or may not see it
+     *
+     * @return An Iterator over the animals of the registry
+     */
+    @Override
+    public Iterator<Animal> iterator() {
+        AtomicReferenceArray<Animal> array = slots;
+        int end = Math.min(highWater, array.length());
+        return new Iterator<Animal>() {
+            private int index = 0;
+            private Animal next = advance();
+
+            private Animal advance() {
+                while (index < end) {
+                    Animal animal = array.get(index++);
+                    if (animal != null)
+                        return animal;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {return next != null;}
+
+            @Override
+            public Animal next() {
+                if (next == null)
+                    throw new NoSuchElementException();
+                Animal animal = next;
+                next = advance();
+                return animal;
+            }
+        };
+    }
+}
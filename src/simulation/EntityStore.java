@@ -0,0 +1,272 @@
+package simulation;
+
+import mobility.Point;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+
+/**
+ * A class keeping the state of a large population in primitive arrays indexed by entity id
+ * Note : the animals bound to the store are views onto it, and the wander kernel advances the whole
+ * population with a linear walk over the arrays.
+ * The arrays are cut in pages of the same size : growing the store adds pages and publishes the new list of pages
+ * at once, an entity never moves to another array so no write is lost while the store grows.
+ * The location of an entity is one packed long written and read at once, a reader never sees a new x with an old y.
+ * The views use opaque accesses, which are atomic on every JVM, the wander kernel uses plain accesses to the pages
+ * it owns (a long array element is one access on the 64-bit JVMs the kernel is made for) so its loop stays fast
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ */
+public class EntityStore {
+    private static final int MIN_PAGE_BITS = 4;
+    private static final int MAX_PAGE_BITS = 14;
+    private static final VarHandle POSITION = MethodHandles.arrayElementVarHandle(long[].class);
+    private final int pageBits;
+    private final int pageMask;
+    private volatile Pages pages;
+    private int[] free;
+    private int freeCount;
+    private int highWater;
+    private int live;
+
+
+    /**
+     * The pages of the arrays, replaced at once when the store grows
+     */
+    private static final class Pages {
+        private final long[][] position;
+        private final int[][] horSpeed, verSpeed, xDir, yDir, size, eatCount;
+        private final double[][] weight;
+        private final boolean[][] alive;
+
+        /**
+         * Keep the pages of the previous list and allocate the new ones
+         */
+        private Pages(Pages previous, int count, int pageSize) {
+            int kept = previous == null ? 0 : previous.position.length;
+            position = previous == null ? new long[count][] : Arrays.copyOf(previous.position, count);
+            horSpeed = previous == null ? new int[count][] : Arrays.copyOf(previous.horSpeed, count);
+            verSpeed = previous == null ? new int[count][] : Arrays.copyOf(previous.verSpeed, count);
+            xDir = previous == null ? new int[count][] : Arrays.copyOf(previous.xDir, count);
+            yDir = previous == null ? new int[count][] : Arrays.copyOf(previous.yDir, count);
+            size = previous == null ? new int[count][] : Arrays.copyOf(previous.size, count);
+            eatCount = previous == null ? new int[count][] : Arrays.copyOf(previous.eatCount, count);
+            weight = previous == null ? new double[count][] : Arrays.copyOf(previous.weight, count);
+            alive = previous == null ? new boolean[count][] : Arrays.copyOf(previous.alive, count);
+            for (int p = kept; p < count; p++) {
+                position[p] = new long[pageSize];
+                horSpeed[p] = new int[pageSize];
+                verSpeed[p] = new int[pageSize];
+                xDir[p] = new int[pageSize];
+                yDir[p] = new int[pageSize];
+                size[p] = new int[pageSize];
+                eatCount[p] = new int[pageSize];
+                weight[p] = new double[pageSize];
+                alive[p] = new boolean[pageSize];
+            }
+        }
+    }
+
+
+    /**
+     * The constructor of the EntityStore object, sets the attributes of the object
+     *
+     * @param capacity is an Integer representing the number of entities allocated at the beginning
+     */
+    public EntityStore(int capacity) {
+        capacity = Math.max(16, capacity);
+        int bits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        this.pageBits = Math.max(MIN_PAGE_BITS, Math.min(MAX_PAGE_BITS, bits));
+        this.pageMask = (1 << pageBits) - 1;
+        this.pages = new Pages(null, (capacity + pageMask) >>> pageBits, 1 << pageBits);
+        free = new int[16];
+        freeCount = 0;
+        highWater = 0;
+        live = 0;
+    }
+
+
+    /**
+     * Add an entity, reusing the id of a removed entity if there is one
+     *
+     * @param px is an Integer representing the location on axis X
+     * @param py is an Integer representing the location on axis Y
+     * @param hor is an Integer representing the horizontal speed
+     * @param ver is an Integer representing the vertical speed
+     * @param entitySize is an Integer representing the size
+     * @param entityWeight is a Double representing the weight
+     * @return The id of the entity
+     */
+    public synchronized int add(int px, int py, int hor, int ver, int entitySize, double entityWeight) {
+        int id;
+        if (freeCount > 0)
+            id = free[--freeCount];
+        else {
+            if (highWater == getCapacity())
+                grow();
+            id = highWater++;
+        }
+        Pages t = pages;
+        int p = id >>> pageBits, i = id & pageMask;
+        POSITION.setOpaque(t.position[p], i, Point.pack(px, py));
+        t.horSpeed[p][i] = hor;
+        t.verSpeed[p][i] = ver;
+        t.xDir[p][i] = 1;
+        t.yDir[p][i] = 1;
+        t.size[p][i] = entitySize;
+        t.eatCount[p][i] = 0;
+        t.weight[p][i] = entityWeight;
+        t.alive[p][i] = true;
+        live++;
+        return id;
+    }
+
+
+    /**
+     * Remove an entity, its id can then be given to a new entity
+     * Note : it must be called only once for an id
+     *
+     * @param id is the id of the entity
+     */
+    public synchronized void remove(int id) {
+        if (id < 0 || id >= highWater)
+            return;
+        boolean[] alive = pages.alive[id >>> pageBits];
+        if (alive[id & pageMask])
+            live--;
+        alive[id & pageMask] = false;
+        if (freeCount == free.length)
+            free = Arrays.copyOf(free, free.length * 2);
+        free[freeCount++] = id;
+    }
+
+
+    /**
+     * Advance every living entity by one step : move with its speed and bounce on the borders
+     * Note : same rule as the wandering of Animal.step, the pages are walked in order and shared
+     * across the available cores
+     *
+     * @param width is an Integer representing the width of the world
+     * @param height is an Integer representing the height of the world
+     */
+    public void stepWander(int width, int height) {
+        Pages t = pages;
+        int n = highWater;
+        int count = (n + pageMask) >>> pageBits;
+        if (count <= 1)
+            stepPage(t, 0, n, width, height);
+        else
+            IntStream.range(0, count).parallel().forEach(p -> stepPage(t, p, Math.min(pageMask + 1, n - (p << pageBits)), width, height));
+    }
+
+    private static void stepPage(Pages t, int p, int to, int width, int height) {
+        long[] position = t.position[p];
+        int[] horSpeed = t.horSpeed[p], verSpeed = t.verSpeed[p], xDir = t.xDir[p], yDir = t.yDir[p], size = t.size[p];
+        double[] weight = t.weight[p];
+        boolean[] alive = t.alive[p];
+        for (int i = 0; i < to; i++) {
+            if (!alive[i])
+                continue;
+            long packed = position[i];
+            int x = Point.unpackX(packed), y = Point.unpackY(packed);
+            int h = horSpeed[i], v = verSpeed[i];
+            if (x + h * xDir[i] >= width)
+                xDir[i] = -1;
+            if (x + h * xDir[i] <= 0)
+                xDir[i] = 1;
+            if (y + v * yDir[i] >= height - size[i])
+                yDir[i] = -1;
+            if (y + v * yDir[i] <= 0)
+                yDir[i] = 1;
+            int nx = x + h * xDir[i], ny = y + v * yDir[i];
+            if (nx < 0 || nx > width || ny < 0 || ny > height)
+                continue;
+            position[i] = Point.pack(nx, ny);
+            double d = Math.sqrt(h * h + v * v);
+            double w = weight[i] - d * weight[i] * 0.00025;
+            if (w > 0)
+                weight[i] = w;
+        }
+    }
+
+
+    /**
+     * Getter method for the number of living entities
+     * @return The number of living entities
+     */
+    public synchronized int getLiveCount() {return live;}
+
+    /**
+     * Getter method for the number of ids in use or free
+     * @return The highest id given plus one
+     */
+    public int getHighWater() {return highWater;}
+
+    /**
+     * Calculate the memory used by the arrays
+     * @return The number of bytes of the arrays
+     */
+    public long getMemoryBytes() {
+        return (long) getCapacity() * (Long.BYTES + 6 * Integer.BYTES + Double.BYTES + 1) + (long) free.length * Integer.BYTES;
+    }
+
+    /**
+     * Getter method for the packed location of an entity
+     * @param id is the id of the entity
+     * @return The location packed by Point.pack, both coordinates come from the same write
+     */
+    public long getPosition(int id) {return (long) POSITION.getOpaque(pages.position[id >>> pageBits], id & pageMask);}
+
+    /**
+     * Setter method for the location of an entity, both coordinates are written at once
+     * @param id is the id of the entity
+     * @param px is an Integer representing the location on axis X
+     * @param py is an Integer representing the location on axis Y
+     */
+    public void setPosition(int id, int px, int py) {POSITION.setOpaque(pages.position[id >>> pageBits], id & pageMask, Point.pack(px, py));}
+
+    public int getX(int id) {return Point.unpackX(getPosition(id));}
+    public int getY(int id) {return Point.unpackY(getPosition(id));}
+    public int getHorSpeed(int id) {return pages.horSpeed[id >>> pageBits][id & pageMask];}
+    public int getVerSpeed(int id) {return pages.verSpeed[id >>> pageBits][id & pageMask];}
+    public int getXDir(int id) {return pages.xDir[id >>> pageBits][id & pageMask];}
+    public int getYDir(int id) {return pages.yDir[id >>> pageBits][id & pageMask];}
+    public void setDirection(int id, int dx, int dy) {
+        Pages t = pages;
+        t.xDir[id >>> pageBits][id & pageMask] = dx;
+        t.yDir[id >>> pageBits][id & pageMask] = dy;
+    }
+    public int getSize(int id) {return pages.size[id >>> pageBits][id & pageMask];}
+    public int getEatCount(int id) {return pages.eatCount[id >>> pageBits][id & pageMask];}
+    public void setEatCount(int id, int count) {pages.eatCount[id >>> pageBits][id & pageMask] = count;}
+    public double getWeight(int id) {return pages.weight[id >>> pageBits][id & pageMask];}
+    public void setWeight(int id, double w) {pages.weight[id >>> pageBits][id & pageMask] = w;}
+    public boolean isAlive(int id) {return pages.alive[id >>> pageBits][id & pageMask];}
+
+    /**
+     * Setter method for the alive flag of an entity
+     * @param id is the id of the entity
+     * @param value is a Boolean representing if the entity moves
+     */
+    public synchronized void setAlive(int id, boolean value) {
+        boolean[] alive = pages.alive[id >>> pageBits];
+        if (alive[id & pageMask] != value)
+            live += value ? 1 : -1;
+        alive[id & pageMask] = value;
+    }
+
+    private int getCapacity() {return pages.position.length << pageBits;}
+
+    /**
+     * Add pages for half of the actual capacity, the actual pages are kept
+     */
+    private void grow() {
+        Pages t = pages;
+        int count = t.position.length;
+        pages = new Pages(t, count + Math.max(1, count >> 1), pageMask + 1);
+    }
+}
@@ -0,0 +1,385 @@
+package simulation;
+
+import DesignPatterns.ZooFile;
+import animals.Animal;
+import mobility.Point;
+import plants.Cabbage;
+import plants.Plant;
+import privateutil.Meat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * A journal of the events that changed the state of a world
+ * Note : an event is logged right after the change it describes is applied, so the journal never holds a change
+ * that did not happen. The simulation threads put the events in a lock-free ring, they only wait when the ring is
+ * full, until the writer frees some slots, so no event is ever lost and the log can rebuild any past state.
+ * A background thread writes all the events of a commit interval at once (group commit), it is woken early when
+ * the ring is half full
+ * Layout of the header (24 bytes, little endian) : magic, version, size of an event, width and height of the world
+ * Layout of an event (48 bytes, little endian) : type, code, color, a, id, tick, b, c, d, e, weight
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see EventReplay
+ * @see SimulationClock
+ */
+public class EventLog {
+    public static final int MAGIC = 0x5A57414C;
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 24;
+    public static final int RECORD_BYTES = 48;
+    public static final byte ADD = 1, MOVE = 2, EAT = 3, INTERRUPT = 4, COLOR = 5, PLANT = 6, MEAT = 7, CLEAR = 8,
+            SLEEP = 9, WAKE = 10, FOOD = 11, PAUSE = 12;
+    public static final int FOOD_EATEN = 0, FOOD_LETTUCE = 1, FOOD_CABBAGE = 2, FOOD_MEAT = 3;
+    public static final int PAUSE_ALL = 0, PAUSE_SPECIES = 1, PAUSE_REGION = 2, PAUSE_CLEAR = 3;
+    private static final int RING_RECORDS = 1 << 16;
+    private static final int BUFFER_RECORDS = 4096;
+    private static final int WORDS = RECORD_BYTES / Long.BYTES;
+    private static final long FULL_WAIT_NANOS = 50_000L;
+
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final long commitNanos;
+    private final Thread writer;
+    private final int mask;
+    private final long[] records;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail;
+    private final ByteBuffer buffer;
+    private long head;
+    private volatile long committed;
+    private volatile SimulationClock clock;
+    private volatile boolean running;
+
+
+    /**
+     * Constructor of the object EventLog : it creates the log file and starts the writer thread
+     *
+     * @param file is the File of the log, it is replaced if it exists
+     * @param width is the width of the logged world
+     * @param height is the height of the logged world
+     * @param commitMillis is the longest time an event waits before it is written
+     * @param fsync is True to force the events on the disk at every commit
+     * @throws IOException if the file cannot be created
+     */
+    public EventLog(File file, int width, int height, int commitMillis, boolean fsync) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.fsync = fsync;
+        this.commitNanos = Math.max(1, commitMillis) * 1_000_000L;
+        this.mask = RING_RECORDS - 1;
+        this.records = new long[RING_RECORDS * WORDS];
+        this.sequence = new AtomicLongArray(RING_RECORDS);
+        for (int i = 0; i < RING_RECORDS; i++)
+            sequence.set(i, i);
+        this.tail = new AtomicLong();
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(width).putInt(height).putInt(0).flip();
+        while (header.hasRemaining())
+            channel.write(header);
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "zoo-wal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+
+    /**
+     * Open the log configured by the zoo.wal system property
+     *
+     * @param width is the width of the logged world
+     * @param height is the height of the logged world
+     * @return The EventLog, or null if no log is configured or the file cannot be created
+     * @see SimulationConfig
+     */
+    public static EventLog openConfigured(int width, int height) {
+        String file = SimulationConfig.getEventLogFile();
+        if (file == null)
+            return null;
+        try {
+            return new EventLog(new File(file), width, height, SimulationConfig.getEventLogCommitMillis(), SimulationConfig.isEventLogFsync());
+        }
+        catch (IOException e) {
+            System.err.println("Cannot open the event log " + file + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+
+    /**
+     * Setter method for the attribute clock, every following event is stamped with its tick
+     * @param clock is the SimulationClock of the logged world
+     */
+    public void setClock(SimulationClock clock) {this.clock = clock;}
+
+    /**
+     * Getter method for the tick stamped on the events
+     * @return The tick of the clock, or 0 if no clock is set
+     */
+    public long getTick() {
+        SimulationClock c = clock;
+        return c == null ? 0 : c.now();
+    }
+
+    /**
+     * Getter method for the number of appended events
+     * @return The number of events given to the log
+     */
+    public long getAppended() {return tail.get();}
+
+    /**
+     * Getter method for the number of committed events
+     * @return The number of events written in the file
+     */
+    public long getCommitted() {return committed;}
+
+    /**
+     * Check if the writer thread is late
+     * Note : a batch driver can call sync between two ticks when it is, so that the simulation threads never wait
+     * @return True if the ring is more than half full, else False
+     */
+    public boolean isBehind() {return tail.get() - committed > RING_RECORDS / 2;}
+
+
+    /**
+     * Log an animal that enters the world
+     * Note : the number of meals and the sleep of the animal are logged too if they are not the initial ones
+     * @param animal is the new Animal
+     */
+    public void added(Animal animal) {
+        long p = animal.getPosition();
+        append(ADD, ZooFile.speciesCode(animal.getAnimalName()), ZooFile.colorCode(animal.getColor()), animal.getId(),
+                Point.unpackX(p), Point.unpackY(p), animal.getHorSpeed(), animal.getVerSpeed(), animal.getSize(), animal.getWeight());
+        if (animal.getEatCount() != 0)
+            ate(animal);
+        if (animal.getThreadSuspended())
+            suspended(animal, true);
+    }
+
+    /**
+     * Log a new location of an animal, with the weight it has after the move
+     * @param animal is the Animal that moved
+     * @param x is the new x coordinate
+     * @param y is the new y coordinate
+     */
+    public void moved(Animal animal, int x, int y) {append(MOVE, 0, 0, animal.getId(), x, y, 0, 0, 0, animal.getWeight());}
+
+    /**
+     * Log a meal of an animal : its new number of meals and its new weight
+     * @param animal is the Animal that ate
+     */
+    public void ate(Animal animal) {append(EAT, 0, 0, animal.getId(), animal.getEatCount(), 0, 0, 0, 0, animal.getWeight());}
+
+    /**
+     * Log an animal that leaves the world
+     * @param animal is the Animal that was eaten or removed
+     */
+    public void interrupted(Animal animal) {append(INTERRUPT, 0, 0, animal.getId(), 0, 0, 0, 0, 0, 0);}
+
+    /**
+     * Log a new color of an animal
+     * @param animal is the painted Animal
+     */
+    public void painted(Animal animal) {append(COLOR, 0, ZooFile.colorCode(animal.getColor()), animal.getId(), 0, 0, 0, 0, 0, 0);}
+
+    /**
+     * Log an animal that falls asleep or wakes up
+     * @param animal is the Animal
+     * @param asleep is True if the animal falls asleep, False if it wakes up
+     */
+    public void suspended(Animal animal, boolean asleep) {append(asleep ? SLEEP : WAKE, 0, 0, animal.getId(), 0, 0, 0, 0, 0, 0);}
+
+    /**
+     * Log a change of the plant of the world
+     * @param plant is the new Plant, or null if there is no plant anymore
+     */
+    public void plant(Plant plant) {
+        if (plant == null)
+            append(PLANT, ZooFile.NO_PLANT, 0, 0, 0, 0, 0, 0, 0, 0);
+        else
+            append(PLANT, plant instanceof Cabbage ? ZooFile.CABBAGE : ZooFile.LETTUCE, 0, 0, plant.getLocation().getx(),
+                    plant.getLocation().gety(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Log a change of the meat of the world
+     * @param meat is the new Meat, or null if there is no meat anymore
+     */
+    public void meat(Meat meat) {
+        if (meat == null)
+            append(MEAT, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        else
+            append(MEAT, 1, 0, 0, meat.getLocation().getx(), meat.getLocation().gety(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Log a food item added to the world or removed from it
+     * @param item is the Item of the food in the FoodIndex of the world
+     * @param added is True if the item was added, False if it was eaten or removed
+     */
+    public void food(FoodIndex.Item item, boolean added) {
+        int code = !added ? FOOD_EATEN : item.food() instanceof Cabbage ? FOOD_CABBAGE
+                : item.food() instanceof Plant ? FOOD_LETTUCE : FOOD_MEAT;
+        append(FOOD, code, 0, item.id(), item.x(), item.y(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Log a change of the pauses of the world
+     * @param kind is PAUSE_ALL, PAUSE_SPECIES, PAUSE_REGION or PAUSE_CLEAR
+     * @param paused is True for a pause, False for a resume
+     * @param region is the id of the region, or 0
+     * @param species is the name of the species, or null
+     * @param bounds is {id, x, y, width, height} for a paused region, else null
+     */
+    public void paused(int kind, boolean paused, int region, String species, int[] bounds) {
+        if (bounds != null)
+            append(PAUSE, kind, paused ? 1 : 0, region, bounds[1], bounds[2], bounds[3], bounds[4], 0, 0);
+        else
+            append(PAUSE, kind, paused ? 1 : 0, region, species == null ? 0 : ZooFile.speciesCode(species), 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Log the removal of all the animals and the food of the world
+     */
+    public void cleared() {append(CLEAR, 0, 0, 0, 0, 0, 0, 0, 0, 0);}
+
+
+    /**
+     * Put an event in the ring
+     * Note : when the ring is full the caller wakes the writer and waits for a free slot (back pressure), the event
+     * is only given up when the log is closed
+     */
+    private void append(byte type, int code, int color, long id, int a, int b, int c, int d, int e, double weight) {
+        if (!running)
+            return;
+        long pos = tail.get();
+        int idx;
+        while (true) {
+            idx = (int) (pos & mask);
+            long dif = sequence.get(idx) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1))
+                    break;
+                pos = tail.get();
+            } else if (dif < 0) {
+                if (!running)
+                    return;
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, FULL_WAIT_NANOS);
+                pos = tail.get();
+            } else {
+                pos = tail.get();
+            }
+        }
+        int at = idx * WORDS;
+        records[at] = (type & 0xFFL) | (code & 0xFFL) << 8 | (color & 0xFFL) << 16 | (long) a << 32;
+        records[at + 1] = id;
+        records[at + 2] = getTick();
+        records[at + 3] = (b & 0xFFFFFFFFL) | (long) c << 32;
+        records[at + 4] = (d & 0xFFFFFFFFL) | (long) e << 32;
+        records[at + 5] = Double.doubleToRawLongBits(weight);
+        sequence.lazySet(idx, pos + 1);
+        if (((pos + 1) & (mask >>> 1)) == 0)
+            LockSupport.unpark(writer);
+    }
+
+
+    /**
+     * Wait until every event appended before the call is written in the file
+     * Note : only the callers of sync and the writer thread use the monitor, never the producers
+     */
+    public synchronized void sync() {
+        long target = tail.get();
+        while (running && committed < target) {
+            LockSupport.unpark(writer);
+            try {
+                wait(commitNanos / 1_000_000L + 1);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the remaining events and close the file
+     */
+    public void close() {
+        synchronized (this) {
+            if (!running)
+                return;
+            running = false;
+            notifyAll();
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join(1000);
+            channel.close();
+        }
+        catch (InterruptedException e) {Thread.currentThread().interrupt();}
+        catch (IOException e) {System.err.println("Cannot close the event log : " + e.getMessage());}
+    }
+
+
+    private void writeLoop() {
+        while (true) {
+            boolean stop = !running;
+            long first = head;
+            try {
+                while (true) {
+                    int idx = (int) (head & mask);
+                    if (sequence.get(idx) != head + 1)
+                        break;
+                    int at = idx * WORDS;
+                    for (int k = 0; k < WORDS; k++)
+                        buffer.putLong(records[at + k]);
+                    sequence.lazySet(idx, head + mask + 1);
+                    head++;
+                    if (!buffer.hasRemaining())
+                        flush();
+                }
+                flush();
+                if (fsync && head != first)
+                    channel.force(false);
+            }
+            catch (IOException e) {
+                System.err.println("Cannot write the event log : " + e.getMessage());
+                synchronized (this) {
+                    running = false;
+                    notifyAll();
+                }
+                return;
+            }
+            if (head != first) {
+                synchronized (this) {
+                    committed = head;
+                    notifyAll();
+                }
+            }
+            if (stop)
+                return;
+            LockSupport.parkNanos(this, commitNanos);
+        }
+    }
+
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,308 @@
+package simulation;
+
+import DesignPatterns.ZooFile;
+import animals.Animal;
+import animals.AnimalState;
+import food.IEdible;
+import mobility.Ilocatable;
+import mobility.Point;
+import plants.Cabbage;
+import plants.Lettuce;
+import plants.Plant;
+import privateutil.Meat;
+import utilities.MessageUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Rebuild a past state of a world from its event log
+ * Usage : java simulation.EventReplay log [tick]
+ * Note : the events are applied as they were recorded, nothing is simulated again, so the replay is much faster
+ * than the run that wrote the log. An incomplete last event (crash during a write) is ignored.
+ * The log is mapped one window at a time, so a log of any size can be replayed
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see EventLog
+ */
+public class EventReplay {
+    private static final long WINDOW_BYTES = (1L << 20) * EventLog.RECORD_BYTES;
+    private final HeadlessWorld world;
+    private final Map<Long, Animal> animals;
+    private final Map<Long, IEdible> foods;
+    private long events;
+    private long lastTick;
+
+
+    /**
+     * Constructor of the object EventReplay
+     *
+     * @param world is the HeadlessWorld that receives the events, it should be empty
+     */
+    public EventReplay(HeadlessWorld world) {
+        this.world = world;
+        this.animals = new HashMap<Long, Animal>();
+        this.foods = new HashMap<Long, IEdible>();
+        this.events = 0;
+        this.lastTick = 0;
+    }
+
+
+    /**
+     * The main method of the replay
+     * @param args Possible arguments that may be passed
+     * @throws IOException if the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage : java simulation.EventReplay log [tick]");
+            return;
+        }
+        PrintStream out = System.out;
+        MessageUtility.setLevel(MessageUtility.Level.OFF);
+        long until = args.length > 1 ? Long.parseLong(args[1]) : Long.MAX_VALUE;
+        File log = new File(args[0]);
+        EventReplay replay = new EventReplay(worldOf(log));
+        long start = System.nanoTime();
+        replay.replay(log, until);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf("Events           : %d up to tick %d in %.3f s (%.0f events/s)%n", replay.getEvents(),
+                replay.getLastTick(), seconds, replay.getEvents() / seconds);
+        HeadlessRunner.printPopulation(out, replay.getEvents() == 0 ? 0 : replay.world.getAnimals().size(), replay.world.getAnimals());
+    }
+
+
+    /**
+     * Build an empty world of the size written in the header of a log
+     *
+     * @param file is the File of the log
+     * @return The new HeadlessWorld
+     * @throws IOException if the file cannot be read or is not an event log
+     */
+    public static HeadlessWorld worldOf(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer in = header(channel);
+            return new HeadlessWorld(in.getInt(12), in.getInt(16), false);
+        }
+    }
+
+
+    /**
+     * Apply the events of a log to the world
+     *
+     * @param file is the File of the log
+     * @param until is the last tick to replay, the events of the next ticks are not applied
+     * @return The world
+     * @throws IOException if the file cannot be read, is not an event log or is a world of another size
+     */
+    public HeadlessWorld replay(File file, long until) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer head = header(channel);
+            if (head.getInt(12) != world.getWorldWidth() || head.getInt(16) != world.getWorldHeight())
+                throw new IOException("The log is a world of " + head.getInt(12) + "x" + head.getInt(16) + ", the replay world is "
+                        + world.getWorldWidth() + "x" + world.getWorldHeight());
+            long size = channel.size();
+            long records = (size - EventLog.HEADER_BYTES) / EventLog.RECORD_BYTES;
+            long end = EventLog.HEADER_BYTES + records * EventLog.RECORD_BYTES;
+            for (long from = EventLog.HEADER_BYTES; from < end; from += WINDOW_BYTES) {
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW_BYTES, end - from));
+                in.order(ByteOrder.LITTLE_ENDIAN);
+                for (int at = 0; at < in.capacity(); at += EventLog.RECORD_BYTES) {
+                    long tick = in.getLong(at + 16);
+                    if (tick > until)
+                        return world;
+                    apply(in, at);
+                    lastTick = tick;
+                    events++;
+                }
+            }
+        }
+        return world;
+    }
+
+
+    /**
+     * Read the header of a log and check it
+     */
+    private static ByteBuffer header(FileChannel channel) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(EventLog.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (in.hasRemaining())
+            if (channel.read(in, in.position()) < 0)
+                break;
+        if (in.hasRemaining() || in.getInt(0) != EventLog.MAGIC)
+            throw new IOException("Not an event log");
+        if (in.getInt(4) != EventLog.VERSION || in.getInt(8) != EventLog.RECORD_BYTES)
+            throw new IOException("Unsupported event log version " + in.getInt(4));
+        return in;
+    }
+
+
+    /**
+     * Apply one event to the world
+     *
+     * @param in is the mapped window of the log
+     * @param at is the position of the event in the window
+     * @throws IOException if the event is corrupted
+     */
+    private void apply(MappedByteBuffer in, int at) throws IOException {
+        byte type = in.get(at);
+        int code = in.get(at + 1);
+        long id = in.getLong(at + 8);
+        int a = in.getInt(at + 4), b = in.getInt(at + 24);
+        Animal animal = animals.get(id);
+        switch (type) {
+            case EventLog.ADD -> {
+                AnimalState state = new AnimalState(id, ZooFile.speciesName(code), ZooFile.colorName(in.get(at + 2)), a, b,
+                        in.getInt(at + 28), in.getInt(at + 32), in.getInt(at + 36), in.getDouble(at + 40), 0, false);
+                Animal added = state.create(world);
+                animals.put(id, added);
+                world.addAnimal(added);
+            }
+            case EventLog.MOVE -> {
+                if (animal != null) {
+                    animal.setLocation(a, b);
+                    animal.setWeight(in.getDouble(at + 40));
+                }
+            }
+            case EventLog.EAT -> {
+                if (animal != null) {
+                    animal.setWeight(in.getDouble(at + 40));
+                    animal.setEatCount(a);
+                }
+            }
+            case EventLog.INTERRUPT -> {
+                if (animal != null) {
+                    animal.interrupt();
+                    animal.setGrid(null);
+                    world.removeAnimal(animal);
+                    animals.remove(id);
+                }
+            }
+            case EventLog.COLOR -> {
+                if (animal != null)
+                    animal.PaintAnimal(ZooFile.colorName(in.get(at + 2)));
+            }
+            case EventLog.SLEEP -> {
+                if (animal != null)
+                    animal.setSuspended();
+            }
+            case EventLog.WAKE -> {
+                if (animal != null)
+                    animal.setResumed();
+            }
+            case EventLog.PLANT -> world.setplant(code == ZooFile.NO_PLANT ? null : place(code == ZooFile.CABBAGE
+                    ? Cabbage.getInstance(world) : Lettuce.getInstance(world), a, b));
+            case EventLog.MEAT -> world.setmeat(code == 0 ? null : place(Meat.getInstance(world), a, b));
+            case EventLog.FOOD -> {
+                Point where = new Point(a, b);
+                switch (code) {
+                    case EventLog.FOOD_EATEN -> world.removeFood(foods.remove(id));
+                    case EventLog.FOOD_LETTUCE -> addFood(id, new Lettuce(world, where));
+                    case EventLog.FOOD_CABBAGE -> addFood(id, new Cabbage(world, where));
+                    case EventLog.FOOD_MEAT -> addFood(id, new Meat(world, where));
+                    default -> throw new IOException("Unknown food " + code + " at " + at);
+                }
+            }
+            case EventLog.PAUSE -> {
+                PauseControl pauses = world.getPauseControl();
+                boolean paused = in.get(at + 2) != 0;
+                switch (code) {
+                    case EventLog.PAUSE_ALL -> {
+                        if (paused)
+                            pauses.pause();
+                        else
+                            pauses.resume();
+                    }
+                    case EventLog.PAUSE_SPECIES -> {
+                        if (paused)
+                            pauses.pauseSpecies(ZooFile.speciesName(a));
+                        else
+                            pauses.resumeSpecies(ZooFile.speciesName(a));
+                    }
+                    case EventLog.PAUSE_REGION -> {
+                        if (paused)
+                            pauses.pauseRegion((int) id, a, b, in.getInt(at + 28), in.getInt(at + 32));
+                        else
+                            pauses.resumeRegion((int) id);
+                    }
+                    case EventLog.PAUSE_CLEAR -> pauses.clear();
+                    default -> throw new IOException("Unknown pause " + code + " at " + at);
+                }
+            }
+            case EventLog.CLEAR -> {
+                for (Animal removed : world.getAnimals()) {
+                    removed.interrupt();
+                    removed.setGrid(null);
+                    world.removeAnimal(removed);
+                }
+                animals.clear();
+                world.setplant(null);
+                world.setmeat(null);
+                world.getFood().clear();
+                foods.clear();
+            }
+            default -> throw new IOException("Unknown event " + type + " at " + at);
+        }
+    }
+
+
+    /**
+     * Put a food of the log in the world and remember the id it had in the log
+     */
+    private <T extends IEdible & Ilocatable> void addFood(long id, T food) {
+        foods.put(id, food);
+        world.addFood(food);
+    }
+
+    /**
+     * Copy a plant to a location, the shared instance of the plant is not moved
+     */
+    private static Plant place(Plant plant, int x, int y) {
+        try {
+            Plant copy = (Plant) plant.clone();
+            copy.setLocation(new Point(x, y));
+            return copy;
+        }
+        catch (CloneNotSupportedException e) {throw new IllegalStateException(e);}
+    }
+
+    /**
+     * Copy the meat to a location, the shared instance of the meat is not moved
+     */
+    private static Meat place(Meat meat, int x, int y) {
+        try {
+            Meat copy = (Meat) meat.clone();
+            copy.setLocation(new Point(x, y));
+            return copy;
+        }
+        catch (CloneNotSupportedException e) {throw new IllegalStateException(e);}
+    }
+
+    /**
+     * Getter method for the attribute events
+     * @return The number of events applied
+     */
+    public long getEvents() {return events;}
+
+    /**
+     * Getter method for the attribute lastTick
+     * @return The tick of the last event applied
+     */
+    public long getLastTick() {return lastTick;}
+
+    /**
+     * Getter method for the attribute world
+     * @return The rebuilt world
+     */
+    public HeadlessWorld getWorld() {return world;}
+}
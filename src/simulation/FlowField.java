@@ -0,0 +1,148 @@
+package simulation;
+
+import food.EFoodType;
+import mobility.Point;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A flow field toward the food of a world
+ * Note : the world is cut in small cells, and for every kind of diet each cell keeps the location of the closest food
+ * that diet accepts. The field is updated when a food is added or removed, so all the animals that follow the same
+ * food share the work, and an animal finds its way with one lookup whatever the number of food items.
+ * An added food only takes the cells it is closer to, a removed food gives its cells to the next closest food.
+ * The kinds of diet are a mask of the food types : 1 for the plants, 2 for the meat, 3 for both
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see FoodIndex
+ */
+public class FlowField {
+    public static final long NONE = Long.MIN_VALUE;
+    private static final int MIN_CELL_SIZE = 16;
+    private static final int MAX_CELLS = 1 << 13;
+    private static final int MASKS = 4;
+    private final FoodIndex index;
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final AtomicLongArray[] targets;
+    private final long[][] owners;
+
+
+    /**
+     * The constructor of the FlowField object, sets the attributes of the object
+     *
+     * @param index is the FoodIndex the field follows
+     * @param width is the width of the world
+     * @param height is the height of the world
+     */
+    FlowField(FoodIndex index, int width, int height) {
+        this.index = index;
+        this.cellSize = (int) Math.max(MIN_CELL_SIZE, Math.ceil(Math.sqrt((double) width * height / MAX_CELLS)));
+        this.cols = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.targets = new AtomicLongArray[MASKS];
+        this.owners = new long[MASKS][];
+        for (int mask = 1; mask < MASKS; mask++) {
+            targets[mask] = new AtomicLongArray(cols * rows);
+            owners[mask] = new long[cols * rows];
+        }
+        reset();
+    }
+
+
+    /**
+     * Getter method for the food an animal goes to
+     *
+     * @param x is an Integer representing the location of the animal on axis X
+     * @param y is an Integer representing the location of the animal on axis Y
+     * @param mask is the kind of diet of the animal
+     * @return The packed location of the closest food of the cell (see Point.pack), NONE if there is no food
+     */
+    public long target(int x, int y, int mask) {
+        if (mask <= 0 || mask >= MASKS)
+            return NONE;
+        int cx = Math.max(0, Math.min(cols - 1, Math.floorDiv(x, cellSize)));
+        int cy = Math.max(0, Math.min(rows - 1, Math.floorDiv(y, cellSize)));
+        return targets[mask].get(cy * cols + cx);
+    }
+
+
+    /**
+     * Give to a new food the cells it is the closest food of
+     *
+     * @param item is the Item of the food
+     */
+    synchronized void added(FoodIndex.Item item) {
+        long packed = Point.pack(item.x(), item.y());
+        for (int mask = 1; mask < MASKS; mask++) {
+            if (!accepts(mask, item.type()))
+                continue;
+            AtomicLongArray target = targets[mask];
+            long[] owner = owners[mask];
+            for (int cy = 0, cell = 0; cy < rows; cy++)
+                for (int cx = 0; cx < cols; cx++, cell++) {
+                    int px = centre(cx), py = centre(cy);
+                    long current = target.get(cell);
+                    long d = item.distanceSquared(px, py);
+                    if (current == NONE || d < distanceSquared(current, px, py)
+                            || (d == distanceSquared(current, px, py) && item.id() < owner[cell])) {
+                        target.set(cell, packed);
+                        owner[cell] = item.id();
+                    }
+                }
+        }
+    }
+
+
+    /**
+     * Give the cells of a removed food to the next closest food
+     *
+     * @param item is the Item the food had
+     */
+    synchronized void removed(FoodIndex.Item item) {
+        for (int mask = 1; mask < MASKS; mask++) {
+            if (!accepts(mask, item.type()))
+                continue;
+            AtomicLongArray target = targets[mask];
+            long[] owner = owners[mask];
+            for (int cy = 0, cell = 0; cy < rows; cy++)
+                for (int cx = 0; cx < cols; cx++, cell++)
+                    if (owner[cell] == item.id()) {
+                        FoodIndex.Item next = index.nearest(centre(cx), centre(cy), mask);
+                        target.set(cell, next == null ? NONE : Point.pack(next.x(), next.y()));
+                        owner[cell] = next == null ? 0 : next.id();
+                    }
+        }
+    }
+
+
+    /**
+     * Forget all the food
+     */
+    synchronized void reset() {
+        for (int mask = 1; mask < MASKS; mask++) {
+            for (int cell = 0; cell < cols * rows; cell++)
+                targets[mask].set(cell, NONE);
+            Arrays.fill(owners[mask], 0);
+        }
+    }
+
+
+    /**
+     * Check if a kind of diet accepts a food type
+     */
+    private static boolean accepts(int mask, EFoodType type) {
+        return (mask & FoodIndex.maskOf(type)) != 0;
+    }
+
+    private int centre(int c) {return c * cellSize + cellSize / 2;}
+
+    private static long distanceSquared(long packed, int x, int y) {
+        long dx = Point.unpackX(packed) - x, dy = Point.unpackY(packed) - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,436 @@
+package simulation;
+
+import diet.IDiet;
+import food.EFoodType;
+import food.IEdible;
+import mobility.Ilocatable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+
+/**
+ * A spatial index of the food items of a world
+ * Note : every food type has its own uniform grid, so a query only looks at the types the diet of the animal accepts.
+ * The grid covers the world with at most MAX_CELLS cells, an item outside the world goes to the closest border cell.
+ * The food does not move, an item keeps the location it had when it was added.
+ * The cells are copy-on-write arrays : the animals read them without any lock while the engine or the GUI adds and
+ * removes items, which happens much less often.
+ * The index keeps a FlowField up to date, so the animals can find the closest food with a single lookup
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see FoodSpawner
+ */
+public class FoodIndex implements Iterable<FoodIndex.Item> {
+    private static final int MIN_CELL_SIZE = 64;
+    private static final int MAX_CELLS = 1 << 16;
+    private static final int SCAN_LIMIT = 16;
+    private static final EFoodType[] TYPES = {EFoodType.VEGETABLE, EFoodType.MEAT};
+    private static final Item[] EMPTY = new Item[0];
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final Layer[] layers;
+    private final AtomicLong nextId;
+    private final Map<IEdible, Item> byFood;
+    private final FlowField flow;
+
+
+    /**
+     * A food item of the index
+     *
+     * @param id is the number given to the item by the index, the items are numbered in the order they were added
+     * @param type is the food type of the item
+     * @param x is the location of the item on axis X
+     * @param y is the location of the item on axis Y
+     * @param food is the food itself (a plant or a meat)
+     */
+    public record Item(long id, EFoodType type, int x, int y, IEdible food) {
+
+        /**
+         * Getting coordinates and calculate the squared distance between them and the item
+         *
+         * @param px is an Integer representing a location on axis X
+         * @param py is an Integer representing a location on axis Y
+         * @return The squared distance
+         */
+        public long distanceSquared(int px, int py) {
+            long dx = x - px, dy = y - py;
+            return dx * dx + dy * dy;
+        }
+    }
+
+
+    /**
+     * The grid of the items of one food type
+     */
+    private static class Layer {
+        private final AtomicReferenceArray<Item[]> cells;
+        private final Set<Item> all = ConcurrentHashMap.newKeySet();
+        private volatile int minCx = Integer.MAX_VALUE, maxCx = Integer.MIN_VALUE;
+        private volatile int minCy = Integer.MAX_VALUE, maxCy = Integer.MIN_VALUE;
+
+        private Layer(int size) {this.cells = new AtomicReferenceArray<Item[]>(size);}
+    }
+
+
+    /**
+     * The constructor of the FoodIndex object, sets the attributes of the object
+     *
+     * @param width is the width of the world
+     * @param height is the height of the world
+     */
+    public FoodIndex(int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        this.cellSize = (int) Math.max(MIN_CELL_SIZE, Math.ceil(Math.sqrt((double) width * height / MAX_CELLS)));
+        this.cols = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.layers = new Layer[EFoodType.values().length];
+        for (EFoodType type : TYPES)
+            layers[type.ordinal()] = new Layer(cols * rows);
+        this.nextId = new AtomicLong();
+        this.byFood = new ConcurrentHashMap<IEdible, Item>();
+        this.flow = new FlowField(this, width, height);
+    }
+
+
+    /**
+     * Add a food to the index at its actual location
+     * Note : a food already in the index is not added twice
+     *
+     * @param food is the food (a plant or a meat)
+     * @return The Item of the food, null if nobody can eat its type
+     */
+    public <T extends IEdible & Ilocatable> Item add(T food) {
+        Item known = byFood.get(food);
+        if (known != null)
+            return known;
+        EFoodType type = food.getFoodType();
+        if (layerOf(type) == null)
+            return null;
+        Item item = new Item(nextId.incrementAndGet(), type, food.getX(), food.getY(), food);
+        if (byFood.putIfAbsent(food, item) != null)
+            return byFood.get(food);
+        Layer layer = layerOf(type);
+        int cx = col(item.x()), cy = row(item.y());
+        synchronized (layer) {
+            Item[] cell = layer.cells.get(cy * cols + cx);
+            if (cell == null)
+                cell = EMPTY;
+            Item[] grown = Arrays.copyOf(cell, cell.length + 1);
+            grown[cell.length] = item;
+            layer.cells.set(cy * cols + cx, grown);
+            layer.all.add(item);
+            layer.minCx = Math.min(layer.minCx, cx);
+            layer.maxCx = Math.max(layer.maxCx, cx);
+            layer.minCy = Math.min(layer.minCy, cy);
+            layer.maxCy = Math.max(layer.maxCy, cy);
+        }
+        flow.added(item);
+        return item;
+    }
+
+
+    /**
+     * Remove a food from the index
+     *
+     * @param food is the food (a plant or a meat)
+     * @return The Item the food had, null if it was not in the index
+     */
+    public Item remove(IEdible food) {return remove(food, true);}
+
+    /**
+     * Remove a food from the index
+     *
+     * @param food is the food (a plant or a meat)
+     * @param follow is True to update the flow field, False if it is reset afterwards
+     * @return The Item the food had, null if it was not in the index
+     */
+    private Item remove(IEdible food, boolean follow) {
+        if (food == null)
+            return null;
+        Item item = byFood.remove(food);
+        if (item == null)
+            return null;
+        Layer layer = layerOf(item.type());
+        int index = row(item.y()) * cols + col(item.x());
+        synchronized (layer) {
+            Item[] cell = layer.cells.get(index);
+            for (int i = 0; cell != null && i < cell.length; i++)
+                if (cell[i] == item) {
+                    if (cell.length == 1)
+                        layer.cells.set(index, null);
+                    else {
+                        Item[] shrunk = Arrays.copyOf(cell, cell.length - 1);
+                        System.arraycopy(cell, i + 1, shrunk, i, cell.length - i - 1);
+                        layer.cells.set(index, shrunk);
+                    }
+                    break;
+                }
+            layer.all.remove(item);
+        }
+        if (follow)
+            flow.removed(item);
+        return item;
+    }
+
+
+    /**
+     * Remove all the items of the index
+     */
+    public void clear() {
+        for (IEdible food : byFood.keySet())
+            remove(food, false);
+        flow.reset();
+    }
+
+    /**
+     * Getter method for the attribute flow
+     * @return The FlowField toward the food of the index
+     */
+    public FlowField getFlowField() {return flow;}
+
+
+    /**
+     * Getting a diet and calculate its kind for the flow field
+     *
+     * @param diet is the IDiet of an animal
+     * @return The mask of the food types the diet accepts (1 for the plants, 2 for the meat)
+     */
+    public static int maskOf(IDiet diet) {
+        return (diet.canEat(EFoodType.VEGETABLE) ? 1 : 0) | (diet.canEat(EFoodType.MEAT) ? 2 : 0);
+    }
+
+    /**
+     * Getting a food type and calculate its bit in the mask of a diet
+     *
+     * @param type is the food type
+     * @return 1 for the plants, 2 for the meat, 0 for what nobody eats
+     */
+    static int maskOf(EFoodType type) {
+        return type == EFoodType.VEGETABLE ? 1 : type == EFoodType.MEAT ? 2 : 0;
+    }
+
+
+    /**
+     * Getter method for the item of a food
+     *
+     * @param food is the food (a plant or a meat)
+     * @return The Item of the food, null if it is not in the index
+     */
+    public Item get(IEdible food) {return food == null ? null : byFood.get(food);}
+
+    /**
+     * Getter method for the number of items in the index
+     * @return The number of items
+     */
+    public int size() {return byFood.size();}
+
+    /**
+     * Check if the index holds no item
+     * @return True if the index is empty, else False
+     */
+    public boolean isEmpty() {return byFood.isEmpty();}
+
+
+    /**
+     * Look for the closest item a diet accepts
+     * Note : with few items they are all compared, else the cells are searched ring after ring around the point
+     * until no closer item can be found. Ties go to the item added first
+     *
+     * @param x is an Integer representing the location on axis X
+     * @param y is an Integer representing the location on axis Y
+     * @param diet is the IDiet of the animal that looks for food
+     * @return The closest Item, null if there is no item the diet accepts
+     */
+    public Item nearest(int x, int y, IDiet diet) {return nearest(x, y, maskOf(diet));}
+
+    /**
+     * Look for the closest item of the food types of a mask
+     *
+     * @param x is an Integer representing the location on axis X
+     * @param y is an Integer representing the location on axis Y
+     * @param mask is the mask of the food types
+     * @return The closest Item, null if there is no item of these types
+     */
+    Item nearest(int x, int y, int mask) {
+        Item best = null;
+        for (EFoodType type : TYPES) {
+            Layer layer = layerOf(type);
+            if (layer.all.isEmpty() || (mask & maskOf(type)) == 0)
+                continue;
+            Item found = layer.all.size() <= SCAN_LIMIT ? scan(layer, x, y) : search(layer, x, y);
+            if (closer(found, best, x, y))
+                best = found;
+        }
+        return best;
+    }
+
+
+    /**
+     * Visit the items a diet accepts that are close to a point
+     *
+     * @param x is an Integer representing the location on axis X
+     * @param y is an Integer representing the location on axis Y
+     * @param radius is the largest distance between the point and an item
+     * @param diet is the IDiet of the animal
+     * @param visitor is the Consumer called with each item in range
+     */
+    public void forEachWithin(int x, int y, double radius, IDiet diet, Consumer<Item> visitor) {
+        double limit = radius * radius;
+        int r = (int) Math.ceil(radius);
+        int minx = col(x - r), maxx = col(x + r);
+        int miny = row(y - r), maxy = row(y + r);
+        for (EFoodType type : TYPES) {
+            Layer layer = layerOf(type);
+            if (layer.all.isEmpty() || !diet.canEat(type))
+                continue;
+            for (int cx = minx; cx <= maxx; cx++)
+                for (int cy = miny; cy <= maxy; cy++) {
+                    Item[] cell = layer.cells.get(cy * cols + cx);
+                    if (cell != null)
+                        for (Item item : cell)
+                            if (item.distanceSquared(x, y) <= limit)
+                                visitor.accept(item);
+                }
+        }
+    }
+
+
+    /**
+     * Visit the items that are inside a rectangle, whatever their type
+     *
+     * @param minX is an Integer representing the left side of the rectangle
+     * @param minY is an Integer representing the top side of the rectangle
+     * @param maxX is an Integer representing the right side of the rectangle
+     * @param maxY is an Integer representing the bottom side of the rectangle
+     * @param visitor is the Consumer called with each item inside
+     */
+    public void forEachInside(int minX, int minY, int maxX, int maxY, Consumer<Item> visitor) {
+        int minx = col(minX), maxx = col(maxX);
+        int miny = row(minY), maxy = row(maxY);
+        for (EFoodType type : TYPES) {
+            Layer layer = layerOf(type);
+            if (layer.all.isEmpty())
+                continue;
+            for (int cy = Math.max(miny, layer.minCy); cy <= Math.min(maxy, layer.maxCy); cy++)
+                for (int cx = Math.max(minx, layer.minCx); cx <= Math.min(maxx, layer.maxCx); cx++) {
+                    Item[] cell = layer.cells.get(cy * cols + cx);
+                    if (cell != null)
+                        for (Item item : cell)
+                            if (minX <= item.x() && item.x() <= maxX && minY <= item.y() && item.y() <= maxY)
+                                visitor.accept(item);
+                }
+        }
+    }
+
+
+    /**
+     * An iterator over all the items of the index, weakly consistent
+     * @return An Iterator over the items
+     */
+    @Override
+    public Iterator<Item> iterator() {
+        return new Iterator<Item>() {
+            private int layer = 0;
+            private Iterator<Item> current = null;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (layer >= TYPES.length)
+                        return false;
+                    current = layerOf(TYPES[layer++]).all.iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+
+    /**
+     * Compare all the items of a layer
+     */
+    private static Item scan(Layer layer, int x, int y) {
+        Item best = null;
+        for (Item item : layer.all)
+            if (closer(item, best, x, y))
+                best = item;
+        return best;
+    }
+
+
+    /**
+     * Search the cells of a layer ring after ring around a point
+     */
+    private Item search(Layer layer, int x, int y) {
+        int cx = col(x), cy = row(y);
+        int rings = Math.max(Math.max(cx - layer.minCx, layer.maxCx - cx), Math.max(cy - layer.minCy, layer.maxCy - cy));
+        Item best = null;
+        for (int r = 0; r <= rings; r++) {
+            for (int i = cx - r; i <= cx + r; i++) {
+                best = closest(layer, i, cy - r, x, y, best);
+                if (r > 0)
+                    best = closest(layer, i, cy + r, x, y, best);
+            }
+            for (int j = cy - r + 1; j <= cy + r - 1; j++) {
+                best = closest(layer, cx - r, j, x, y, best);
+                best = closest(layer, cx + r, j, x, y, best);
+            }
+            long reach = (long) r * cellSize;
+            if (best != null && best.distanceSquared(x, y) <= reach * reach)
+                break;
+        }
+        return best;
+    }
+
+
+    /**
+     * Compare the items of one cell with the best item found so far
+     */
+    private Item closest(Layer layer, int cx, int cy, int x, int y, Item best) {
+        if (cx < 0 || cx >= cols || cy < 0 || cy >= rows)
+            return best;
+        Item[] cell = layer.cells.get(cy * cols + cx);
+        if (cell != null)
+            for (Item item : cell)
+                if (closer(item, best, x, y))
+                    best = item;
+        return best;
+    }
+
+
+    /**
+     * Check if an item is closer to a point than another one, ties go to the smallest id
+     */
+    private static boolean closer(Item item, Item best, int x, int y) {
+        if (item == null)
+            return false;
+        if (best == null)
+            return true;
+        long d = item.distanceSquared(x, y), b = best.distanceSquared(x, y);
+        return d < b || (d == b && item.id() < best.id());
+    }
+
+    private Layer layerOf(EFoodType type) {return layers[type.ordinal()];}
+
+    private int col(int x) {return Math.max(0, Math.min(cols - 1, Math.floorDiv(x, cellSize)));}
+
+    private int row(int y) {return Math.max(0, Math.min(rows - 1, Math.floorDiv(y, cellSize)));}
+}
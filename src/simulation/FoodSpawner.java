@@ -0,0 +1,115 @@
+package simulation;
+
+import mobility.Point;
+import plants.Cabbage;
+import plants.Lettuce;
+import privateutil.Meat;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * A class that keeps a world supplied with food
+ * Note : the spawner adds a fraction of an item every tick, so a rate of 0.25 adds one item every four ticks.
+ * The items are a lettuce, a cabbage or a meat with the same chance, placed at random in the whole world or around a
+ * few fixed places. The random stream is derived from the seed of the simulation, so two runs get the same food
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see FoodIndex
+ * @see SimulationConfig
+ */
+public class FoodSpawner {
+    /**
+     * The way the food is placed in the world
+     * UNIFORM : anywhere in the world with the same chance
+     * CLUSTERED : around a few fixed places, like fields and feeding spots
+     */
+    public enum Distribution {UNIFORM, CLUSTERED}
+    private static final double SPREAD = 40;
+    private final double rate;
+    private final int max;
+    private final Distribution distribution;
+    private final int clusters;
+    private final SplittableRandom random;
+    private int[][] centres;
+    private double credit;
+
+
+    /**
+     * The constructor of the FoodSpawner object, sets the attributes of the object
+     *
+     * @param rate is the number of items added in one tick (greater than zero)
+     * @param max is the number of items above which nothing is added
+     * @param distribution is the way the items are placed
+     * @param clusters is the number of places the items grow around with the clustered distribution
+     */
+    public FoodSpawner(double rate, int max, Distribution distribution, int clusters) {
+        this.rate = rate;
+        this.max = max;
+        this.distribution = distribution;
+        this.clusters = Math.max(1, clusters);
+        this.random = RandomService.forName("food");
+        this.centres = null;
+        this.credit = 0;
+    }
+
+
+    /**
+     * Create the spawner described by the system properties
+     *
+     * @return The FoodSpawner, or null if the rate is zero
+     */
+    public static FoodSpawner fromConfig() {
+        if (SimulationConfig.getFoodRate() <= 0)
+            return null;
+        return new FoodSpawner(SimulationConfig.getFoodRate(), SimulationConfig.getFoodMax(),
+                SimulationConfig.getFoodDistribution(), SimulationConfig.getFoodClusters());
+    }
+
+
+    /**
+     * Add the items of one tick to a world
+     *
+     * @param world is the IWorld to feed
+     * @return The number of items added
+     */
+    public int tick(IWorld world) {
+        credit += rate;
+        int count = (int) credit;
+        credit -= count;
+        int width = Math.max(1, world.getWorldWidth()), height = Math.max(1, world.getWorldHeight());
+        int added = 0;
+        for (int i = 0; i < count && world.getFood().size() < max; i++, added++) {
+            Point at = place(width, height);
+            switch (random.nextInt(3)) {
+                case 0 -> world.addFood(new Lettuce(world, at));
+                case 1 -> world.addFood(new Cabbage(world, at));
+                default -> world.addFood(new Meat(world, at));
+            }
+        }
+        return added;
+    }
+
+
+    /**
+     * Choose the location of a new item
+     *
+     * @param width is the width of the world
+     * @param height is the height of the world
+     * @return The Point where the item grows
+     */
+    private Point place(int width, int height) {
+        if (distribution == Distribution.UNIFORM)
+            return new Point(random.nextInt(width), random.nextInt(height));
+        if (centres == null) {
+            centres = new int[clusters][];
+            for (int i = 0; i < clusters; i++)
+                centres[i] = new int[]{random.nextInt(width), random.nextInt(height)};
+        }
+        int[] centre = centres[random.nextInt(clusters)];
+        int x = (int) Math.round(centre[0] + random.nextGaussian() * SPREAD);
+        int y = (int) Math.round(centre[1] + random.nextGaussian() * SPREAD);
+        return new Point(Math.max(0, Math.min(width - 1, x)), Math.max(0, Math.min(height - 1, y)));
+    }
+}
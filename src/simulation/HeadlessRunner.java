@@ -0,0 +1,194 @@
+package simulation;
+
+import DesignPatterns.AbstractZooFactory;
+import animals.Animal;
+import mobility.Point;
+import plants.Cabbage;
+import plants.Lettuce;
+import privateutil.Meat;
+
+import utilities.MessageUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+
+/**
+ * Command-line runner of the simulation, without any display
+ * Usage : java simulation.HeadlessRunner [animals] [ticks] [width] [height] [-v] [-views | -store] [-wal file]
+ * Note : the messages of the animals are hidden unless -v is given, the runner prints the throughput
+ * and the population at the end of the run.
+ * With -views the animals are views onto an EntityStore, with -store the population lives only in the
+ * EntityStore (no Animal objects, no food, no predation) and is advanced by its wander kernel.
+ * The run is the same for the same seed (-Dzoo.seed=...) whatever the number of cores.
+ * With -wal the events of the run are written in an event log that EventReplay can read back
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ */
+public class HeadlessRunner {
+    private static final String[] SPECIES = {"Lion", "Bear", "Elephant", "Giraffe", "Turtle"};
+    private static final int FEED_PERIOD = 200;
+
+
+    /**
+     * The main method of the runner
+     * @param args Possible arguments that may be passed
+     */
+    public static void main(String[] args) {
+        int[] values = {1000, 1000, 800, 600};
+        boolean verbose = false, views = false, storeOnly = false;
+        String wal = null;
+        int n = 0;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-wal") && i + 1 < args.length)
+                wal = args[++i];
+            else if (arg.equals("-v"))
+                verbose = true;
+            else if (arg.equals("-views"))
+                views = true;
+            else if (arg.equals("-store"))
+                storeOnly = true;
+            else if (n < values.length)
+                values[n++] = Integer.parseInt(arg);
+        }
+        int population = values[0], ticks = values[1];
+        PrintStream out = System.out;
+        if (!verbose)
+            MessageUtility.setLevel(MessageUtility.Level.OFF);
+
+        if (!SimulationConfig.setWorldSize(values[2], values[3])) {
+            System.err.println("The size of the world must be between 1 and " + SimulationConfig.MAX_WORLD_SIZE);
+            return;
+        }
+
+        if (storeOnly) {
+            runStore(out, population, ticks, values[2], values[3]);
+            return;
+        }
+
+        HeadlessWorld world = new HeadlessWorld(values[2], values[3], false);
+        if (views)
+            world.setStore(new EntityStore(population));
+        if (wal != null) {
+            try {
+                world.setEventLog(new EventLog(new File(wal), world.getWorldWidth(), world.getWorldHeight(), SimulationConfig.getEventLogCommitMillis(), SimulationConfig.isEventLogFsync()));
+            }
+            catch (IOException e) {
+                System.err.println("Cannot open the event log " + wal + " : " + e.getMessage());
+                return;
+            }
+        }
+        populate(world, population, RandomService.forName("populate"));
+        SimulationEngine engine = new SimulationEngine(world, SimulationConfig.getTicksPerSecond());
+
+        long steps = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            if (i % FEED_PERIOD == 0)
+                feed(world, i / FEED_PERIOD);
+            steps += world.getAnimals().size();
+            engine.tick();
+            if (world.getEventLog() != null && world.getEventLog().isBehind())
+                world.getEventLog().sync();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        MessageUtility.flush();
+
+        out.printf("Ticks            : %d in %.3f s (%.1f ticks/s)%n", ticks, seconds, ticks / seconds);
+        out.printf("Animal steps     : %d (%.0f steps/s)%n", steps, steps / seconds);
+        printPopulation(out, population, world.getAnimals());
+        if (SimulationConfig.getFoodRate() > 0)
+            out.printf("Food left        : %d%n", world.getFood().size());
+        if (world.getEventLog() != null) {
+            world.getEventLog().close();
+            out.printf("Logged events    : %d%n", world.getEventLog().getCommitted());
+        }
+    }
+
+
+    /**
+     * Run a population that lives only in an entity store
+     *
+     * @param out is the PrintStream that receives the report
+     * @param population is the number of entities
+     * @param ticks is the number of ticks
+     * @param width is the width of the world
+     * @param height is the height of the world
+     */
+    private static void runStore(PrintStream out, int population, int ticks, int width, int height) {
+        SplittableRandom rand = RandomService.forName("populate");
+        EntityStore store = new EntityStore(population);
+        for (int i = 0; i < population; i++) {
+            int size = 50 + rand.nextInt(251);
+            store.add(rand.nextInt(width), rand.nextInt(height), 1 + rand.nextInt(10), 1 + rand.nextInt(10), size, size * 1.5);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++)
+            store.stepWander(width, height);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long steps = (long) ticks * store.getLiveCount();
+        out.printf("Ticks            : %d in %.3f s (%.1f ticks/s)%n", ticks, seconds, ticks / seconds);
+        out.printf("Entity steps     : %d (%.0f steps/s)%n", steps, steps / seconds);
+        out.printf("Store memory     : %.1f MB (%.1f bytes/entity)%n", store.getMemoryBytes() / 1e6, (double) store.getMemoryBytes() / population);
+    }
+
+
+    /**
+     * Fill the world with random animals at random locations
+     *
+     * @param world is the HeadlessWorld to fill
+     * @param population is the number of animals
+     * @param rand is the random stream used to choose the animals
+     */
+    private static void populate(HeadlessWorld world, int population, SplittableRandom rand) {
+        for (int i = 0; i < population; i++) {
+            String name = SPECIES[rand.nextInt(SPECIES.length)];
+            Animal animal = AbstractZooFactory.of(name).createAnimal(name, 50 + rand.nextInt(251), 1 + rand.nextInt(10), 1 + rand.nextInt(10), "Natural", world);
+            animal.setLocation(new Point(rand.nextInt(world.getWorldWidth()), rand.nextInt(world.getWorldHeight())));
+            world.addAnimal(animal);
+        }
+    }
+
+
+    /**
+     * Put a food in the world if there is none, alternately a plant and the meat
+     *
+     * @param world is the HeadlessWorld to feed
+     * @param round is the number of the feeding
+     */
+    private static void feed(HeadlessWorld world, int round) {
+        switch (round % 3) {
+            case 0 -> { if (world.getplant() == null) world.setplant(Lettuce.getInstance(world)); }
+            case 1 -> { if (world.getplant() == null) world.setplant(Cabbage.getInstance(world)); }
+            default -> { if (world.getmeat() == null) world.setmeat(Meat.getInstance(world)); }
+        }
+    }
+
+
+    /**
+     * Print the population left in the world, by species
+     *
+     * @param out is the PrintStream that receives the report
+     * @param initial is the number of animals at the beginning of the run
+     * @param animals is the list of the animals left
+     */
+    static void printPopulation(PrintStream out, int initial, List<Animal> animals) {
+        Map<String, Integer> bySpecies = new TreeMap<String, Integer>();
+        long eaten = 0;
+        for (Animal animal : animals) {
+            bySpecies.merge(animal.getAnimalName(), 1, Integer::sum);
+            eaten += animal.getEatCount();
+        }
+        out.printf("Population       : %d -> %d%n", initial, animals.size());
+        for (Map.Entry<String, Integer> entry : bySpecies.entrySet())
+            out.printf("  %-15s: %d%n", entry.getKey(), entry.getValue());
+        out.printf("Meals (survivors): %d%n", eaten);
+    }
+}
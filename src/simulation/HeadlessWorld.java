@@ -0,0 +1,196 @@
+package simulation;
+
+import DesignPatterns.ZooController;
+import animals.Animal;
+import food.IEdible;
+import mobility.Ilocatable;
+import mobility.SpatialGrid;
+import plants.Plant;
+import privateutil.Meat;
+
+import java.util.List;
+
+
+/**
+ * A class representing a world without any display
+ * Note : it follows the same rules as the GUI panel, so the simulation can run on a server or in a benchmark
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see IWorld
+ */
+public class HeadlessWorld implements IWorld {
+    private final int width;
+    private final int height;
+    private final boolean images;
+    private final AnimalRegistry animals;
+    private final SpatialGrid grid;
+    private final ZooController controller;
+    private Plant plant = null;
+    private Meat meat = null;
+    private final FoodIndex food;
+    private EntityStore store = null;
+    private EventLog eventLog = null;
+    private final PauseControl pauses = new PauseControl();
+    private final SimulationClock clock = new SimulationClock();
+
+
+    /**
+     * The constructor of the HeadlessWorld object, sets the attributes of the object
+     *
+     * @param width is an Integer representing the width of the world
+     * @param height is an Integer representing the height of the world
+     * @param images is a Boolean representing if the animals load their images (needed only to draw them)
+     */
+    public HeadlessWorld(int width, int height, boolean images) {
+        this.width = width;
+        this.height = height;
+        this.images = images;
+        this.animals = new AnimalRegistry();
+        this.grid = new SpatialGrid(1);
+        this.food = new FoodIndex(width, height);
+        this.controller = new ZooController(this);
+    }
+
+
+    /**
+     * Add an animal to the world and make it take part in the simulation
+     *
+     * @param animal is the Animal to add
+     */
+    public void addAnimal(Animal animal) {
+        if (store != null)
+            animal.bindStore(store);
+        pauses.admit(animal);
+        animals.add(animal);
+        grid.ensureCellSize(Math.max(animal.getSize(), animal.geteatdistance()));
+        animal.setGrid(grid);
+        if (eventLog != null)
+            eventLog.added(animal);
+        animal.setAlive(true);
+    }
+
+    @Override
+    public boolean removeAnimal(Animal animal) {
+        if (!animals.remove(animal))
+            return false;
+        animal.bindStore(null);
+        return true;
+    }
+
+
+    /**
+     * Setter method for the attribute store
+     * Note : the animals added afterwards are views onto the store
+     *
+     * @param store is the EntityStore that keeps the state of the animals, null to let them keep their own state
+     */
+    public void setStore(EntityStore store) {this.store = store;}
+
+    /**
+     * Getter method for the attribute store
+     * @return The EntityStore that keeps the state of the animals
+     */
+    public EntityStore getStore() {return store;}
+
+    @Override
+    public List<Animal> getAnimals() {return animals.snapshot();}
+
+    @Override
+    public AnimalRegistry getRegistry() {return animals;}
+
+    @Override
+    public int getWorldWidth() {return width;}
+
+    @Override
+    public int getWorldHeight() {return height;}
+
+    @Override
+    public SpatialGrid getGrid() {return grid;}
+
+    @Override
+    public Plant getplant() {return plant;}
+
+    @Override
+    public Meat getmeat() {return meat;}
+
+    @Override
+    public void setplant(Plant plant) {
+        food.remove(this.plant);
+        this.plant = plant;
+        if (plant != null)
+            food.add(plant);
+        if (eventLog != null)
+            eventLog.plant(plant);
+    }
+
+    @Override
+    public void setmeat(Meat meat) {
+        food.remove(this.meat);
+        this.meat = meat;
+        if (meat != null)
+            food.add(meat);
+        if (eventLog != null)
+            eventLog.meat(meat);
+    }
+
+    @Override
+    public FoodIndex getFood() {return food;}
+
+    @Override
+    public <T extends IEdible & Ilocatable> void addFood(T item) {
+        FoodIndex.Item added = food.add(item);
+        if (added != null && eventLog != null)
+            eventLog.food(added, true);
+    }
+
+    @Override
+    public boolean removeFood(IEdible item) {
+        if (item != null && item == plant)
+            setplant(null);
+        else if (item != null && item == meat)
+            setmeat(null);
+        else {
+            FoodIndex.Item removed = food.remove(item);
+            if (removed != null && eventLog != null)
+                eventLog.food(removed, false);
+            return removed != null;
+        }
+        return true;
+    }
+
+    @Override
+    public EventLog getEventLog() {return eventLog;}
+
+    @Override
+    public PauseControl getPauseControl() {return pauses;}
+
+    @Override
+    public SimulationClock getClock() {return clock;}
+
+    /**
+     * Setter method for the attribute eventLog, the events are stamped with the clock of the world
+     * @param eventLog is the EventLog that records the events of the world, or null to not record them
+     */
+    public void setEventLog(EventLog eventLog) {
+        if (eventLog != null)
+            eventLog.setClock(clock);
+        pauses.setEventLog(eventLog);
+        this.eventLog = eventLog;
+    }
+
+    @Override
+    public ZooController getController() {return controller;}
+
+    @Override
+    public boolean loadsImages() {return images;}
+
+    @Override
+    public void manageZoo() {InteractionPhase.run(this);}
+
+    /**
+     * Nothing to publish, there is no display
+     */
+    @Override
+    public void publish() {}
+}
@@ -0,0 +1,42 @@
+package simulation;
+
+import DesignPatterns.ZooController;
+import animals.Animal;
+import food.IEdible;
+import mobility.Ilocatable;
+import mobility.SpatialGrid;
+import plants.Plant;
+import privateutil.Meat;
+
+import java.util.List;
+
+
+/**
+ * Interface to describe the world the animals, the plants and the meat live in
+ * Note : the world can be the GUI panel or a headless world without any Swing dependency
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ */
+public interface IWorld {
+    public int getWorldWidth();
+    public int getWorldHeight();
+    public List<Animal> getAnimals();
+    public AnimalRegistry getRegistry();
+    public boolean removeAnimal(Animal animal);
+    public SpatialGrid getGrid();
+    public Plant getplant();
+    public Meat getmeat();
+    public void setplant(Plant plant);
+    public void setmeat(Meat meat);
+    public FoodIndex getFood();
+    public <T extends IEdible & Ilocatable> void addFood(T food);
+    public boolean removeFood(IEdible food);
+    public ZooController getController();
+    public boolean loadsImages();
+    public void manageZoo();
+    public void publish();
+    public EventLog getEventLog();
+    public PauseControl getPauseControl();
+    public SimulationClock getClock();
+}
@@ -0,0 +1,186 @@
+package simulation;
+
+import animals.Animal;
+import food.EFoodType;
+import diet.IDiet;
+import food.IEdible;
+import mobility.SpatialGrid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * A class that checks the interactions of the animals of a world
+ * Note : it is shared by the GUI panel and the headless world so that both follow the same rules.
+ * All the meals of a tick are collected first, then the conflicts are resolved and every meal is applied in one pass,
+ * so N animals reaching their food at the same time need one call and not N
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see IWorld
+ */
+public class InteractionPhase {
+    private static final int PARALLEL_THRESHOLD = 512;
+    private static final Comparator<Meal> ORDER = Comparator.comparingLong(Meal::distance)
+            .thenComparingLong(meal -> meal.eater().getId())
+            .thenComparingLong(meal -> meal.prey().getId());
+    private static final Comparator<Feed> FEED_ORDER = Comparator.comparingLong(Feed::distance)
+            .thenComparingLong(feed -> feed.eater().getId())
+            .thenComparingLong(feed -> feed.item().id());
+
+
+    /**
+     * A possible meal of the tick
+     *
+     * @param eater is the Animal that can eat
+     * @param prey is the Animal that can be eaten
+     * @param distance is the squared distance between the two animals
+     */
+    private record Meal(Animal eater, Animal prey, long distance) {}
+
+    /**
+     * A food item an animal can reach in the tick
+     *
+     * @param eater is the Animal that can eat
+     * @param item is the Item of the food
+     * @param distance is the squared distance between the animal and the food
+     */
+    private record Feed(Animal eater, FoodIndex.Item item, long distance) {}
+
+
+    /**
+     * The possible meals found by one thread
+     */
+    private static class Collector {
+        private final List<Meal> meals = new ArrayList<Meal>();
+        private final List<Feed> feeds = new ArrayList<Feed>();
+
+        private void merge(Collector other) {
+            meals.addAll(other.meals);
+            feeds.addAll(other.feeds);
+        }
+    }
+
+
+    private InteractionPhase() {}
+
+
+    /**
+     * Find every meal of the tick and apply them at once
+     * Note : the predators are resolved first, the closest pairs win and ties go to the smallest ids, so two predators
+     * on one prey, or a prey that could also eat, always end the same way whatever the order of the grid.
+     * Then every food item goes to the closest animal in reach that is not busy yet.
+     * An animal takes part in at most one meal per tick, and an eaten animal cannot eat anything.
+     * Every check is made on the state of the animals at the start of the phase, with a large population the
+     * possible meals are collected on all the cores
+     *
+     * @param world is the IWorld to check
+     * @return True if an animal ate something, else False
+     */
+    public static boolean run(IWorld world) {
+        SpatialGrid grid = world.getGrid();
+        FoodIndex food = world.getFood();
+        PauseControl pauses = world.getPauseControl();
+        List<Animal> animals = world.getAnimals();
+
+        Collector found;
+        if (animals.size() >= PARALLEL_THRESHOLD)
+            found = animals.parallelStream().collect(Collector::new,
+                    (collector, animal) -> collect(animal, grid, food, pauses, collector), Collector::merge);
+        else {
+            found = new Collector();
+            for (Animal animal : animals)
+                collect(animal, grid, food, pauses, found);
+        }
+
+        Set<Animal> busy = Collections.newSetFromMap(new IdentityHashMap<Animal, Boolean>());
+        found.meals.sort(ORDER);
+        List<Meal> meals = new ArrayList<Meal>();
+        for (Meal meal : found.meals)
+            if (!busy.contains(meal.eater()) && !busy.contains(meal.prey())) {
+                busy.add(meal.eater());
+                busy.add(meal.prey());
+                meals.add(meal);
+            }
+        found.feeds.sort(FEED_ORDER);
+        Set<FoodIndex.Item> eaten = new HashSet<FoodIndex.Item>();
+        List<Feed> feeds = new ArrayList<Feed>();
+        for (Feed feed : found.feeds)
+            if (!busy.contains(feed.eater()) && !eaten.contains(feed.item())) {
+                busy.add(feed.eater());
+                eaten.add(feed.item());
+                feeds.add(feed);
+            }
+
+        for (Meal meal : meals) {
+            Animal animalpreda = meal.eater();
+            Animal animalpreay = meal.prey();
+            animalpreda.eat(animalpreay);
+            animalpreda.eatInc();
+            animalpreay.interrupt();
+            animalpreay.setGrid(null);
+            world.removeAnimal(animalpreay);
+        }
+        for (Feed feed : feeds) {
+            IEdible item = feed.item().food();
+            synchronized (item) {
+                feed.eater().eat(item);
+                feed.eater().eatInc();
+            }
+            world.removeFood(item);
+        }
+        return !meals.isEmpty() || !feeds.isEmpty();
+    }
+
+
+    /**
+     * Collect what an animal can eat in the tick : the animals it can hunt and the food in its reach
+     *
+     * @param animal is the Animal
+     * @param grid is the SpatialGrid that indexes the animals
+     * @param food is the FoodIndex of the world
+     * @param pauses is the PauseControl of the world
+     * @param collector is the Collector the possible meals are added to
+     */
+    private static void collect(Animal animal, SpatialGrid grid, FoodIndex food, PauseControl pauses, Collector collector) {
+        if (!animal.getisalive())
+            return;
+        collectPreys(animal, grid, pauses, collector);
+        if (!food.isEmpty()) {
+            int x = animal.getX(), y = animal.getY();
+            food.forEachWithin(x, y, animal.geteatdistance(), animal.getDiet(),
+                    item -> collector.feeds.add(new Feed(animal, item, item.distanceSquared(x, y))));
+        }
+    }
+
+
+    /**
+     * Collect the animals a predator can eat
+     *
+     * @param animalpreda is the Animal that may eat
+     * @param grid is the SpatialGrid that indexes the animals
+     * @param pauses is the PauseControl of the world
+     * @param collector is the Collector the possible meals are added to
+     */
+    private static void collectPreys(Animal animalpreda, SpatialGrid grid, PauseControl pauses, Collector collector) {
+        if(!animalpreda.getDiet().canEat(EFoodType.MEAT) || !animalpreda.getisalive() || animalpreda.getThreadSuspended() || pauses.isPaused(animalpreda))
+            return;
+        int x = animalpreda.getX(), y = animalpreda.getY();
+        IDiet diet = animalpreda.getDiet();
+        double weight = animalpreda.getWeight();
+        grid.forEachNear(x, y, grid.getCellSize(), candidate -> {
+            Animal animalpreay = (Animal) candidate;
+            if(animalpreay == animalpreda || !animalpreay.getisalive())
+                return;
+            long distance = animalpreay.distanceSquared(x, y);
+            if ((distance < (long) animalpreay.getSize() * animalpreay.getSize()) && (diet.canEat(animalpreay.getFoodType())) && (weight > animalpreay.getWeight() * 2))
+                collector.meals.add(new Meal(animalpreda, animalpreay, distance));
+        });
+    }
+}
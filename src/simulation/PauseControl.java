@@ -0,0 +1,330 @@
+package simulation;
+
+import animals.Animal;
+import mobility.Point;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * The pauses of a world : the whole world, some species or some regions can be paused
+ * Note : a pause or a resume only replaces one immutable set of rules and increases the epoch, it never visits the
+ * animals, so it costs the same for ten animals and for a hundred thousand. The animals check the rules when they move.
+ * A pause of the whole world stops the animals that are in the world when it starts, like the Sleep button always did :
+ * an animal added afterwards moves until the next pause. Every change is written in the event log of the world
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see IWorld
+ */
+public class PauseControl {
+    private static final Rules NONE = new Rules(0, false, 0, Collections.emptySet(), new int[0][]);
+    private volatile Rules rules = NONE;
+    private final ConcurrentLinkedQueue<Animal> waiting = new ConcurrentLinkedQueue<Animal>();
+    private int nextRegion = 1;
+    private volatile EventLog eventLog;
+
+
+    /**
+     * The immutable rules of the pauses at one epoch
+     * Note : they are kept as they are by the saved states of the zoo
+     */
+    public static final class Rules {
+        private final long epoch;
+        private final boolean all;
+        private final long allSince;
+        private final Set<String> species;
+        private final int[][] regions;
+        private final boolean idle;
+
+        private Rules(long epoch, boolean all, long allSince, Set<String> species, int[][] regions) {
+            this.epoch = epoch;
+            this.all = all;
+            this.allSince = allSince;
+            this.species = species;
+            this.regions = regions;
+            this.idle = !all && species.isEmpty() && regions.length == 0;
+        }
+
+        /**
+         * Getter method for the attribute epoch
+         * @return The number of changes of the pauses when the rules were made
+         */
+        public long getEpoch() {return epoch;}
+
+        /**
+         * Getter method for the attribute all
+         * @return True if the whole world is paused, else False
+         */
+        public boolean isAll() {return all;}
+
+        /**
+         * Getter method for the attribute species
+         * @return The names of the paused species
+         */
+        public Set<String> getSpecies() {return species;}
+
+        /**
+         * Getter method for the attribute regions
+         * @return A copy of the paused regions, each one is {id, x, y, width, height}
+         */
+        public int[][] getRegions() {
+            int[][] copy = new int[regions.length][];
+            for (int i = 0; i < regions.length; i++)
+                copy[i] = regions[i].clone();
+            return copy;
+        }
+    }
+
+
+    /**
+     * Build rules read from a save file, to give to restore
+     *
+     * @param epoch is the saved epoch
+     * @param all is True if the whole world was paused
+     * @param species are the names of the paused species
+     * @param regions are the paused regions, each one is {id, x, y, width, height}
+     * @return The Rules
+     */
+    public static Rules rulesOf(long epoch, boolean all, Set<String> species, int[][] regions) {
+        return new Rules(epoch, all, epoch, Collections.unmodifiableSet(new HashSet<String>(species)), regions.clone());
+    }
+
+
+    /**
+     * Setter method for the attribute eventLog
+     * @param eventLog is the EventLog that records the pauses, or null to not record them
+     */
+    public void setEventLog(EventLog eventLog) {this.eventLog = eventLog;}
+
+
+    /**
+     * Check if an animal is paused
+     * Note : when nothing is paused the check is a single read
+     *
+     * @param animal is the Animal to check
+     * @return True if the animal must not move, else False
+     */
+    public boolean isPaused(Animal animal) {
+        Rules r = rules;
+        if (r.idle)
+            return false;
+        if ((r.all && animal.getJoinEpoch() < r.allSince) || r.species.contains(animal.getAnimalName()))
+            return true;
+        if (r.regions.length == 0)
+            return false;
+        long p = animal.getPosition();
+        int x = Point.unpackX(p), y = Point.unpackY(p);
+        for (int[] region : r.regions)
+            if (x >= region[1] && x < region[1] + region[3] && y >= region[2] && y < region[2] + region[4])
+                return true;
+        return false;
+    }
+
+    /**
+     * Check if the whole world is paused
+     * @return True if the world is paused, else False
+     */
+    public boolean isPaused() {return rules.all;}
+
+    /**
+     * Getter method for the attribute epoch
+     * @return The number of changes of the pauses
+     */
+    public long getEpoch() {return rules.epoch;}
+
+    /**
+     * Getter method for the attribute rules
+     * @return The actual rules, they never change
+     */
+    public Rules getRules() {return rules;}
+
+
+    /**
+     * Let a new animal in : a pause of the whole world that started before it does not stop it
+     * @param animal is the Animal added to the world
+     */
+    public void admit(Animal animal) {animal.setJoinEpoch(rules.epoch);}
+
+
+    /**
+     * Pause the whole world
+     */
+    public void pause() {
+        synchronized (this) {
+            Rules r = rules;
+            rules = new Rules(r.epoch + 1, true, r.epoch + 1, r.species, r.regions);
+            log(EventLog.PAUSE_ALL, true, 0, null, null);
+        }
+    }
+
+    /**
+     * Resume the whole world, the paused species and regions stay paused
+     */
+    public void resume() {
+        synchronized (this) {
+            Rules r = rules;
+            rules = new Rules(r.epoch + 1, false, 0, r.species, r.regions);
+            log(EventLog.PAUSE_ALL, false, 0, null, null);
+        }
+        wakeWaiting();
+    }
+
+    /**
+     * Pause all the animals of a species
+     * @param name is the name of the species (Lion, Bear...)
+     */
+    public void pauseSpecies(String name) {
+        synchronized (this) {
+            Rules r = rules;
+            Set<String> species = new HashSet<String>(r.species);
+            species.add(name);
+            rules = new Rules(r.epoch + 1, r.all, r.allSince, Collections.unmodifiableSet(species), r.regions);
+            log(EventLog.PAUSE_SPECIES, true, 0, name, null);
+        }
+    }
+
+    /**
+     * Resume all the animals of a species
+     * @param name is the name of the species (Lion, Bear...)
+     */
+    public void resumeSpecies(String name) {
+        synchronized (this) {
+            Rules r = rules;
+            Set<String> species = new HashSet<String>(r.species);
+            species.remove(name);
+            rules = new Rules(r.epoch + 1, r.all, r.allSince, Collections.unmodifiableSet(species), r.regions);
+            log(EventLog.PAUSE_SPECIES, false, 0, name, null);
+        }
+        wakeWaiting();
+    }
+
+    /**
+     * Pause all the animals of a rectangle of the world
+     *
+     * @param x is the left of the rectangle
+     * @param y is the top of the rectangle
+     * @param width is the width of the rectangle
+     * @param height is the height of the rectangle
+     * @return The id of the region, to give to resumeRegion
+     */
+    public int pauseRegion(int x, int y, int width, int height) {
+        synchronized (this) {
+            int id = nextRegion;
+            pauseRegion(id, x, y, width, height);
+            return id;
+        }
+    }
+
+    /**
+     * Pause a region with a known id, when the pauses are replayed or restored
+     */
+    void pauseRegion(int id, int x, int y, int width, int height) {
+        synchronized (this) {
+            Rules r = rules;
+            int[][] regions = new int[r.regions.length + 1][];
+            System.arraycopy(r.regions, 0, regions, 0, r.regions.length);
+            regions[r.regions.length] = new int[]{id, x, y, width, height};
+            nextRegion = Math.max(nextRegion, id + 1);
+            rules = new Rules(r.epoch + 1, r.all, r.allSince, r.species, regions);
+            log(EventLog.PAUSE_REGION, true, id, null, regions[r.regions.length]);
+        }
+    }
+
+    /**
+     * Resume the animals of a region
+     * @param id is the id given by pauseRegion
+     */
+    public void resumeRegion(int id) {
+        synchronized (this) {
+            Rules r = rules;
+            int n = 0;
+            int[][] regions = new int[r.regions.length][];
+            for (int[] region : r.regions)
+                if (region[0] != id)
+                    regions[n++] = region;
+            int[][] kept = new int[n][];
+            System.arraycopy(regions, 0, kept, 0, n);
+            rules = new Rules(r.epoch + 1, r.all, r.allSince, r.species, kept);
+            log(EventLog.PAUSE_REGION, false, id, null, null);
+        }
+        wakeWaiting();
+    }
+
+    /**
+     * Remove every pause
+     */
+    public void clear() {
+        synchronized (this) {
+            rules = new Rules(rules.epoch + 1, false, 0, Collections.emptySet(), new int[0][]);
+            log(EventLog.PAUSE_CLEAR, false, 0, null, null);
+        }
+        wakeWaiting();
+    }
+
+    /**
+     * Put back saved rules
+     * Note : the epoch goes on from the largest of the actual and the saved epochs, and a saved pause of the whole
+     * world stops all the animals that are in the world now. The change is logged as a clear and the saved pauses
+     *
+     * @param saved are the Rules to put back
+     */
+    public void restore(Rules saved) {
+        synchronized (this) {
+            clear();
+            long epoch = Math.max(rules.epoch, saved.epoch) + 1;
+            rules = new Rules(epoch, false, 0, Collections.emptySet(), new int[0][]);
+            for (String name : saved.species)
+                pauseSpecies(name);
+            for (int[] region : saved.regions)
+                pauseRegion(region[0], region[1], region[2], region[3], region[4]);
+            if (saved.all)
+                pause();
+        }
+    }
+
+
+    /**
+     * Write a change of the pauses in the event log
+     */
+    private void log(int kind, boolean paused, int id, String species, int[] region) {
+        EventLog log = eventLog;
+        if (log != null)
+            log.paused(kind, paused, id, species, region);
+    }
+
+
+    /**
+     * Register a paused animal that gave back its thread, it is given back to its scheduler when it is resumed
+     * Note : legacy mode only
+     *
+     * @param animal is the paused Animal
+     * @return True if the animal is registered, False if it is not paused anymore and must go on
+     */
+    public boolean await(Animal animal) {
+        waiting.add(animal);
+        if (isPaused(animal))
+            return true;
+        waiting.remove(animal);
+        return false;
+    }
+
+    /**
+     * Give back to their scheduler the waiting animals that are not paused anymore
+     */
+    private void wakeWaiting() {
+        for (Iterator<Animal> it = waiting.iterator(); it.hasNext(); ) {
+            Animal animal = it.next();
+            if (!animal.getisalive())
+                it.remove();
+            else if (!isPaused(animal)) {
+                it.remove();
+                animal.reschedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A class giving the random streams of the simulation, all derived from one seed
+ * Note : the stream of an entity depends only on the seed and on the id of the entity, so a run is the same
+ * whatever the number of threads and whatever the order the entities are advanced in
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see SimulationConfig
+ */
+public class RandomService {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long WORKER_SALT = 0x6A09E667F3BCC909L;
+    private static final AtomicLong NEXT_WORKER = new AtomicLong();
+    private static final ThreadLocal<SplittableRandom> WORKER = ThreadLocal.withInitial(
+            () -> new SplittableRandom(mix(SimulationConfig.getSeed() ^ WORKER_SALT, NEXT_WORKER.getAndIncrement())));
+
+    private RandomService() {}
+
+
+    /**
+     * Create the stream of an entity
+     * Note : the stream should be created once and kept by the entity, it is not shared between threads
+     *
+     * @param id is the id of the entity
+     * @return A new SplittableRandom, the same for the same seed and the same id
+     */
+    public static SplittableRandom forEntity(long id) {
+        return new SplittableRandom(mix(SimulationConfig.getSeed(), id));
+    }
+
+    /**
+     * Create the stream of an entity of a kind that has its own ids (plants...)
+     * Note : the kind keeps the streams of two kinds apart when their ids are the same
+     *
+     * @param kind is the name of the kind of entity
+     * @param id is the id of the entity
+     * @return A new SplittableRandom, the same for the same seed, the same kind and the same id
+     */
+    public static SplittableRandom forEntity(String kind, long id) {
+        return new SplittableRandom(mix(mix(SimulationConfig.getSeed(), kind.hashCode()), id));
+    }
+
+    /**
+     * Create a named stream, for a part of the simulation that is not an entity (populating a world, feeding...)
+     *
+     * @param name is the name of the stream
+     * @return A new SplittableRandom, the same for the same seed and the same name
+     */
+    public static SplittableRandom forName(String name) {
+        return new SplittableRandom(mix(SimulationConfig.getSeed() ^ WORKER_SALT, name.hashCode() ^ ((long) name.length() << 32)));
+    }
+
+    /**
+     * Getter method for the stream of the current thread
+     * Note : the stream depends on the order the threads first asked for it, so it is only for the randomness
+     * that does not change the state of the simulation
+     *
+     * @return The SplittableRandom of the current thread
+     */
+    public static SplittableRandom forWorker() {return WORKER.get();}
+
+
+    /**
+     * Mix a seed and a key into a well spread seed (the finalizer of SplitMix64)
+     */
+    private static long mix(long seed, long key) {
+        long z = seed + (key + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
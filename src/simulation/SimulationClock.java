@@ -0,0 +1,32 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * The clock of a world : the number of ticks made since the world was created
+ * Note : the clock is advanced once per tick by the engine in tick mode and by the controller in legacy mode,
+ * so the events of both modes are stamped with the same kind of time
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see SimulationEngine
+ * @see EventLog
+ */
+public class SimulationClock {
+    private final AtomicLong tick = new AtomicLong();
+
+
+    /**
+     * Getter method for the attribute tick
+     * @return The actual tick of the world
+     */
+    public long now() {return tick.get();}
+
+
+    /**
+     * Go to the next tick
+     * @return The new tick
+     */
+    public long advance() {return tick.incrementAndGet();}
+}
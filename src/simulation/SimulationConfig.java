@@ -0,0 +1,316 @@
+package simulation;
+
+
+/**
+ * A class gathering the runtime settings of the simulation
+ * Note : every setting has a default value and can be overridden with a system property (-Dzoo.xxx=...),
+ * a value that cannot be read is reported and the default value is used
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ */
+public class SimulationConfig {
+
+    /**
+     * The way the animals are advanced
+     * TICK : a central engine advances all the animals in one fixed timestep
+     * LEGACY : every animal runs its own loop in the thread pool
+     */
+    public enum Mode {TICK, LEGACY}
+
+    /**
+     * The executor of the thread pool in legacy mode
+     * FIXED : ten threads, the other animals wait in the queue
+     * CACHED : one platform thread per animal
+     * VIRTUAL : one virtual thread per animal
+     */
+    public enum ExecutorMode {FIXED, CACHED, VIRTUAL}
+
+    /**
+     * The way the panel draws a frame
+     * JAVA2D : every sprite is drawn with Graphics2D
+     * RASTER : the sprites are written in the pixels of one image on all the cores, then the image is drawn
+     */
+    public enum RenderMode {JAVA2D, RASTER}
+
+    private static Mode mode = enumProperty("zoo.mode", Mode.TICK);
+    private static ExecutorMode executorMode = enumProperty("zoo.executor", ExecutorMode.FIXED);
+    private static int ticksPerSecond = Integer.getInteger("zoo.tps", 100);
+    private static int framesPerSecond = Integer.getInteger("zoo.fps", 60);
+    private static RenderMode renderMode = enumProperty("zoo.render", RenderMode.JAVA2D);
+    private static String eventLogFile = System.getProperty("zoo.wal");
+    private static int eventLogCommitMillis = Integer.getInteger("zoo.wal.commit", 5);
+    private static boolean eventLogFsync = Boolean.parseBoolean(System.getProperty("zoo.wal.fsync", "true"));
+    private static long seed = Long.getLong("zoo.seed", 42L);
+    private static long mementoBudget = Long.getLong("zoo.memento.budget", 16L << 20);
+    private static double foodRate = doubleProperty("zoo.food.rate", 0);
+    private static int foodMax = Integer.getInteger("zoo.food.max", 10000);
+    private static FoodSpawner.Distribution foodDistribution = enumProperty("zoo.food.distribution", FoodSpawner.Distribution.UNIFORM);
+    private static int foodClusters = Integer.getInteger("zoo.food.clusters", 8);
+    public static final int MAX_WORLD_SIZE = 100000;
+    private static int worldWidth = Math.max(1, Math.min(MAX_WORLD_SIZE, Integer.getInteger("zoo.world.width", 800)));
+    private static int worldHeight = Math.max(1, Math.min(MAX_WORLD_SIZE, Integer.getInteger("zoo.world.height", 600)));
+
+    private SimulationConfig() {}
+
+    /**
+     * Getter method for the attribute mode
+     * @return The way the animals are advanced
+     */
+    public static Mode getMode() {return mode;}
+
+    /**
+     * Setter method for the attribute mode
+     * Note : it must be called before the zoo is created
+     *
+     * @param newMode is the way the animals are advanced
+     */
+    public static void setMode(Mode newMode) {mode = newMode;}
+
+    /**
+     * Check if the animals run their own loop in the thread pool
+     * @return True if the legacy mode is active, else False
+     */
+    public static boolean isLegacy() {return mode == Mode.LEGACY;}
+
+    /**
+     * Getter method for the attribute executorMode
+     * @return The executor of the thread pool in legacy mode
+     */
+    public static ExecutorMode getExecutorMode() {return executorMode;}
+
+    /**
+     * Setter method for the attribute executorMode
+     * Note : it must be called before the zoo is created
+     *
+     * @param newMode is the executor of the thread pool in legacy mode
+     */
+    public static void setExecutorMode(ExecutorMode newMode) {executorMode = newMode;}
+
+    /**
+     * Getter method for the attribute ticksPerSecond
+     * @return The number of ticks the engine makes in one second
+     */
+    public static int getTicksPerSecond() {return ticksPerSecond;}
+
+    /**
+     * Setter method for the attribute ticksPerSecond
+     * @param tps is the number of ticks in one second (greater than zero)
+     * @return True if the setter succeed, else False
+     */
+    public static boolean setTicksPerSecond(int tps) {
+        if (tps <= 0)
+            return false;
+        ticksPerSecond = tps;
+        return true;
+    }
+
+
+    /**
+     * Getter method for the attribute framesPerSecond
+     * @return The maximal number of frames the panel paints in one second
+     */
+    public static int getFramesPerSecond() {return framesPerSecond;}
+
+    /**
+     * Setter method for the attribute framesPerSecond
+     * Note : it must be called before the zoo is created
+     *
+     * @param fps is the maximal number of frames in one second (greater than zero)
+     * @return True if the setter succeed, else False
+     */
+    public static boolean setFramesPerSecond(int fps) {
+        if (fps <= 0)
+            return false;
+        framesPerSecond = fps;
+        return true;
+    }
+
+    /**
+     * Getter method for the attribute renderMode
+     * @return The way the panel draws a frame
+     */
+    public static RenderMode getRenderMode() {return renderMode;}
+
+    /**
+     * Setter method for the attribute renderMode
+     * Note : it must be called before the zoo is created
+     *
+     * @param mode is the way the panel draws a frame
+     */
+    public static void setRenderMode(RenderMode mode) {renderMode = mode;}
+
+    /**
+     * Getter method for the attribute mementoBudget
+     * @return The memory in bytes the saved states of the zoo can use
+     */
+    public static long getMementoBudget() {return mementoBudget;}
+
+    /**
+     * Setter method for the attribute mementoBudget
+     * @param bytes is the memory in bytes the saved states can use (greater than zero)
+     * @return True if the setter succeed, else False
+     */
+    public static boolean setMementoBudget(long bytes) {
+        if (bytes <= 0)
+            return false;
+        mementoBudget = bytes;
+        return true;
+    }
+
+    /**
+     * Getter method for the attribute eventLogFile
+     * @return The path of the event log, or null if the events are not logged
+     */
+    public static String getEventLogFile() {return eventLogFile;}
+
+    /**
+     * Setter method for the attribute eventLogFile
+     * @param file is the path of the event log, or null to not log the events
+     */
+    public static void setEventLogFile(String file) {eventLogFile = file;}
+
+    /**
+     * Getter method for the attribute eventLogCommitMillis
+     * @return The longest time in milliseconds an event waits before it is written
+     */
+    public static int getEventLogCommitMillis() {return eventLogCommitMillis;}
+
+    /**
+     * Getter method for the attribute eventLogFsync
+     * @return True if every commit of the event log is forced on the disk
+     */
+    public static boolean isEventLogFsync() {return eventLogFsync;}
+
+    /**
+     * Getter method for the attribute seed
+     * @return The seed every random stream of the simulation is derived from
+     * @see RandomService
+     */
+    public static long getSeed() {return seed;}
+
+    /**
+     * Setter method for the attribute seed
+     * Note : only the streams created after the change use the new seed
+     * @param value is the new seed
+     */
+    public static void setSeed(long value) {seed = value;}
+
+
+    /**
+     * Getter method for the attribute foodRate
+     * @return The number of food items the spawner adds in one tick (it can be a fraction), zero if it is off
+     * @see FoodSpawner
+     */
+    public static double getFoodRate() {return foodRate;}
+
+    /**
+     * Setter method for the attribute foodRate
+     * Note : it must be called before the engine is created
+     *
+     * @param rate is the number of food items added in one tick, zero to turn the spawner off
+     * @return True if the setter succeed, else False
+     */
+    public static boolean setFoodRate(double rate) {
+        if (rate < 0)
+            return false;
+        foodRate = rate;
+        return true;
+    }
+
+    /**
+     * Getter method for the attribute foodMax
+     * @return The number of food items above which the spawner waits for the animals to eat
+     */
+    public static int getFoodMax() {return foodMax;}
+
+    /**
+     * Getter method for the attribute foodDistribution
+     * @return The way the spawner places the food in the world
+     */
+    public static FoodSpawner.Distribution getFoodDistribution() {return foodDistribution;}
+
+    /**
+     * Setter method for the attribute foodDistribution
+     * @param distribution is the way the spawner places the food in the world
+     */
+    public static void setFoodDistribution(FoodSpawner.Distribution distribution) {foodDistribution = distribution;}
+
+    /**
+     * Getter method for the attribute foodClusters
+     * @return The number of places the food grows around with the clustered distribution
+     */
+    public static int getFoodClusters() {return foodClusters;}
+
+
+    /**
+     * Getter method for the attribute worldWidth
+     * @return The width of the world, the animals and the food stay between 0 and this value on axis X
+     * @see mobility.Point
+     */
+    public static int getWorldWidth() {return worldWidth;}
+
+    /**
+     * Getter method for the attribute worldHeight
+     * @return The height of the world, the animals and the food stay between 0 and this value on axis Y
+     * @see mobility.Point
+     */
+    public static int getWorldHeight() {return worldHeight;}
+
+    /**
+     * Setter method for the attributes worldWidth and worldHeight
+     * Note : it must be called before the zoo is created
+     *
+     * @param width is the width of the world (between 1 and MAX_WORLD_SIZE)
+     * @param height is the height of the world (between 1 and MAX_WORLD_SIZE)
+     * @return True if the setter succeed, else False
+     */
+    public static boolean setWorldSize(int width, int height) {
+        if (width <= 0 || height <= 0 || width > MAX_WORLD_SIZE || height > MAX_WORLD_SIZE)
+            return false;
+        worldWidth = width;
+        worldHeight = height;
+        return true;
+    }
+
+
+    /**
+     * Read a system property that names a value of an enum
+     *
+     * @param name is the name of the property
+     * @param defaultValue is the value used when the property is missing or unknown
+     * @return The value named by the property, in any case
+     */
+    private static <E extends Enum<E>> E enumProperty(String name, E defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println("Unknown value " + value + " for " + name + ", " + defaultValue.name().toLowerCase() + " is used");
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Read a system property that holds a number
+     *
+     * @param name is the name of the property
+     * @param defaultValue is the value used when the property is missing or is not a number
+     * @return The number of the property
+     */
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e) {
+            System.err.println("Unknown value " + value + " for " + name + ", " + defaultValue + " is used");
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package simulation;
+
+import animals.Animal;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A class representing the central simulation engine
+ * Note : every tick adds the food of the spawner, advances all the animals (movement and food seeking), then checks the interactions
+ * (eating and predation) and finally publishes the result. The tick rate is fixed and does not depend on
+ * how the threads are scheduled. The clock of the world goes forward at every tick.
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see SimulationConfig
+ */
+public class SimulationEngine {
+    private static final int PARALLEL_THRESHOLD = 512;
+    private final IWorld world;
+    private final long tickNanos;
+    private final FoodSpawner spawner;
+    private ScheduledExecutorService scheduler;
+    private volatile long tickCount;
+
+
+    /**
+     * Constructor of the object SimulationEngine : it sets the attributes of the object
+     *
+     * @param world is the IWorld the engine advances
+     * @param ticksPerSecond is an Integer representing the fixed tick rate
+     */
+    public SimulationEngine(IWorld world, int ticksPerSecond) {
+        this.world = world;
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+        this.tickCount = 0;
+        this.spawner = FoodSpawner.fromConfig();
+    }
+
+
+    /**
+     * Start the ticks on a dedicated thread, nothing happens if the engine is already running
+     */
+    public synchronized void start() {
+        if (scheduler != null)
+            return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "zoo-engine");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::safeTick, 0, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Stop the ticks
+     */
+    public synchronized void stop() {
+        if (scheduler == null)
+            return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+
+    /**
+     * Advance the whole zoo by one timestep
+     * Note : with a large population the movement phase is split across the available cores.
+     * The moves posted during the tick are drained at once and checked in a single interaction pass.
+     * No food is added while the whole world is paused, and only the animals added after the pause move
+     */
+    public void tick() {
+        if (spawner != null && !world.getPauseControl().isPaused())
+            spawner.tick(world);
+        List<Animal> animals = world.getAnimals();
+        if (animals.size() >= PARALLEL_THRESHOLD)
+            animals.parallelStream().forEach(Animal::tick);
+        else
+            for (Animal animal : animals)
+                animal.tick();
+        if (world.getController().getEventBus().drain() > 0)
+            world.manageZoo();
+        tickCount++;
+        world.getClock().advance();
+        world.publish();
+    }
+
+
+    /**
+     * Getter method for the attribute tickCount
+     * @return The number of ticks made since the creation of the engine
+     */
+    public long getTickCount() {return tickCount;}
+
+
+    /**
+     * Run one tick without letting an exception cancel the next ones
+     */
+    private void safeTick() {
+        try {
+            tick();
+        }
+        catch (RuntimeException e) {e.printStackTrace();}
+    }
+}
@@ -0,0 +1,163 @@
+package utilities;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer of log lines drained on a background thread
+ * Note : the callers never block and never take a lock, when the buffer is full the line is dropped and counted
+ *
+ * @version 17.0.2
+ * @author Attias Zaccharie, Amar Yuval
+ * @see MessageUtility
+ */
+public class AsyncAppender {
+	private final int mask;
+	private final String[] lines;
+	private final boolean[] errors;
+	private final AtomicLongArray sequence;
+	private final AtomicLong tail;
+	private final AtomicLong dropped;
+	private final PrintStream file;
+	private final Thread drainer;
+	private volatile long head;
+	private volatile boolean waiting;
+	private volatile boolean running;
+
+	/**
+	 * Constructor of the object AsyncAppender : it sets the attributes of the object and starts the drain thread
+	 *
+	 * @param capacity
+	 *            - Number of lines the buffer can hold (rounded up to a power of two)
+	 * @param file
+	 *            - Stream that receives all the lines, null to use the standard output and error streams
+	 */
+	public AsyncAppender(int capacity, PrintStream file) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.mask = size - 1;
+		this.lines = new String[size];
+		this.errors = new boolean[size];
+		this.sequence = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			sequence.set(i, i);
+		this.tail = new AtomicLong();
+		this.dropped = new AtomicLong();
+		this.file = file;
+		this.head = 0;
+		this.running = true;
+		this.drainer = new Thread(this::drainLoop, "zoo-log");
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+	}
+
+	/**
+	 * Put a line in the buffer
+	 * 
+	 * @param line
+	 *            - The line to print
+	 * @param error
+	 *            - True to print it on the error stream
+	 * @return True if the line was queued, False if the buffer was full
+	 */
+	public boolean append(String line, boolean error) {
+		long pos = tail.get();
+		int idx;
+		while (true) {
+			idx = (int) (pos & mask);
+			long dif = sequence.get(idx) - pos;
+			if (dif == 0) {
+				if (tail.compareAndSet(pos, pos + 1))
+					break;
+				pos = tail.get();
+			} else if (dif < 0) {
+				dropped.incrementAndGet();
+				return false;
+			} else {
+				pos = tail.get();
+			}
+		}
+		lines[idx] = line;
+		errors[idx] = error;
+		sequence.lazySet(idx, pos + 1);
+		if (waiting)
+			LockSupport.unpark(drainer);
+		return true;
+	}
+
+	/**
+	 * Getter method for the number of dropped lines
+	 * 
+	 * @return The number of lines dropped because the buffer was full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Wait until every queued line has been printed
+	 */
+	public void flush() {
+		while (running && head < tail.get()) {
+			LockSupport.unpark(drainer);
+			Thread.onSpinWait();
+		}
+	}
+
+	/**
+	 * Stop the drain thread after it printed the remaining lines
+	 */
+	public void close() {
+		running = false;
+		LockSupport.unpark(drainer);
+		try {
+			drainer.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void drainLoop() {
+		while (true) {
+			boolean stop = !running;
+			int count = drain();
+			if (stop)
+				return;
+			if (count == 0) {
+				waiting = true;
+				if (head == tail.get())
+					LockSupport.parkNanos(10_000_000L);
+				waiting = false;
+			}
+		}
+	}
+
+	/**
+	 * Print all the lines available in the buffer
+	 * 
+	 * @return The number of lines printed
+	 */
+	private int drain() {
+		PrintStream out = file != null ? file : System.out;
+		PrintStream err = file != null ? file : System.err;
+		int count = 0;
+		while (true) {
+			int idx = (int) (head & mask);
+			if (sequence.get(idx) != head + 1)
+				break;
+			String line = lines[idx];
+			(errors[idx] ? err : out).println(line);
+			lines[idx] = null;
+			sequence.lazySet(idx, head + mask + 1);
+			head++;
+			count++;
+		}
+		if (count > 0) {
+			out.flush();
+			err.flush();
+		}
+		return count;
+	}
+}
@@ -1,13 +1,73 @@
 package utilities;
 
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+
 /**
  * A set of Logging functions to be used in appropriate classes
+ * Note : every message has a level, a message of a disabled level is dropped before its String is built.
+ * The level, the asynchronous mode and the output file can be set with the system properties
+ * zoo.log.level (OFF, ERROR, WARN, INFO by default, DEBUG, TRACE), zoo.log.async (true/false) and zoo.log.file
  * 
  * @author baroh
  *
  */
 public class MessageUtility {
 
+	/**
+	 * The levels of the messages, from the most to the least important
+	 */
+	public enum Level {
+		OFF, ERROR, WARN, INFO, DEBUG, TRACE
+	}
+
+	private static volatile Level level = levelOf(System.getProperty("zoo.log.level"), Level.INFO);
+	private static final PrintStream file = openFile(System.getProperty("zoo.log.file"));
+	private static final AsyncAppender appender = Boolean.parseBoolean(System.getProperty("zoo.log.async", "true"))
+			? new AsyncAppender(1 << 16, file)
+			: null;
+
+	/**
+	 * Setter method for the level of the messages
+	 * 
+	 * @param newLevel
+	 *            - The least important level printed
+	 */
+	public static void setLevel(Level newLevel) {
+		level = newLevel;
+	}
+
+	/**
+	 * Getter method for the level of the messages
+	 * 
+	 * @return The least important level printed
+	 */
+	public static Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Check if the messages of a level are printed
+	 * 
+	 * @param messageLevel
+	 *            - Level of the message
+	 * @return True if the messages of this level are printed, else False
+	 */
+	public static boolean isEnabled(Level messageLevel) {
+		return messageLevel.ordinal() <= level.ordinal();
+	}
+
+	/**
+	 * Wait until all the queued messages have been printed
+	 */
+	public static void flush() {
+		if (appender != null)
+			appender.flush();
+		if (file != null)
+			file.flush();
+	}
+
 	/**
 	 * Logs Boolean function calls.
 	 * 
@@ -21,12 +81,10 @@ public class MessageUtility {
 	 *            - Result of boolean function
 	 */
 	public static void logBooleanFunction(String name, String funcName, Object value, boolean isSuccess) {
+		if (!isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			return;
 		String str = "[b]" + name + ":  \t" + funcName + "(" + value + ") => " + isSuccess;
-		if (isSuccess) {
-			System.out.println(str);
-		} else {
-			System.err.println(str);
-		}
+		print(str, !isSuccess);
 	}
 
 	/**
@@ -39,8 +97,10 @@ public class MessageUtility {
 	 *            - Name of the Animal
 	 */
 	public static void logConstractor(String className, String name) {
+		if (!isEnabled(Level.INFO))
+			return;
 		String str = "[+]new " + className + "\tname: " + name;
-		System.out.println(str);
+		print(str, false);
 	}
 
 	/**
@@ -52,8 +112,26 @@ public class MessageUtility {
 	 *            - Returned value
 	 */
 	public static void logGetter(String name, String funcName, Object value) {
+		if (!isEnabled(Level.TRACE))
+			return;
 		String str = "[g]" + name + ":  \t" + funcName + "() => " + value;
-		//System.out.println(str);
+		print(str, false);
+	}
+
+	/**
+	 * Same as {@link #logGetter(String, String, Object)} without boxing the value
+	 */
+	public static void logGetter(String name, String funcName, double value) {
+		if (isEnabled(Level.TRACE))
+			logGetter(name, funcName, (Object) value);
+	}
+
+	/**
+	 * Same as {@link #logGetter(String, String, Object)} without boxing the value
+	 */
+	public static void logGetter(String name, String funcName, int value) {
+		if (isEnabled(Level.TRACE))
+			logGetter(name, funcName, (Object) value);
 	}
 
 	/**
@@ -67,17 +145,83 @@ public class MessageUtility {
 	 *            - Did the assignment take place
 	 */
 	public static void logSetter(String name, String funcName, Object value, boolean isSuccess) {
+		if (!isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			return;
 		String str = "[s]" + name + ":  \t" + funcName + "(" + value + ") => " + isSuccess;
-		if (isSuccess) {
-			System.out.println(str);
-		} else {
-			System.err.println(str);
-		}
+		print(str, !isSuccess);
+	}
 
+	/**
+	 * Same as {@link #logSetter(String, String, Object, boolean)} without boxing the value
+	 */
+	public static void logSetter(String name, String funcName, double value, boolean isSuccess) {
+		if (isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			logSetter(name, funcName, (Object) value, isSuccess);
+	}
+
+	/**
+	 * Same as {@link #logSetter(String, String, Object, boolean)} without boxing the value
+	 */
+	public static void logSetter(String name, String funcName, int value, boolean isSuccess) {
+		if (isEnabled(isSuccess ? Level.DEBUG : Level.WARN))
+			logSetter(name, funcName, (Object) value, isSuccess);
 	}
 
 	public static void logSound(String name, String message) {
+		if (!isEnabled(Level.INFO))
+			return;
 		String str = "[!]" + name + ":  \t" + message;
-		System.out.println(str);
+		print(str, false);
+	}
+
+	/**
+	 * Print a message, on the background thread in asynchronous mode
+	 * 
+	 * @param str
+	 *            - The message
+	 * @param error
+	 *            - True to print it on the error stream
+	 */
+	private static void print(String str, boolean error) {
+		if (appender != null)
+			appender.append(str, error);
+		else if (file != null)
+			file.println(str);
+		else if (error)
+			System.err.println(str);
+		else
+			System.out.println(str);
+	}
+
+	/**
+	 * Read the level of the messages from its name, an unknown name is reported and the default level is used
+	 * 
+	 * @param name
+	 *            - The name of the level, null for the default level
+	 * @param defaultLevel
+	 *            - The level used when the name is missing or unknown
+	 * @return The level
+	 */
+	private static Level levelOf(String name, Level defaultLevel) {
+		if (name == null)
+			return defaultLevel;
+		try {
+			return Level.valueOf(name.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println("Unknown value " + name + " for zoo.log.level, " + defaultLevel + " is used");
+			return defaultLevel;
+		}
+	}
+
+	private static PrintStream openFile(String path) {
+		if (path == null)
+			return null;
+		try {
+			return new PrintStream(new FileOutputStream(path, true), false);
+		} catch (FileNotFoundException e) {
+			System.err.println("Cannot open log file " + path);
+			return null;
+		}
 	}
 }
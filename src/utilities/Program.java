@@ -3,7 +3,6 @@ package utilities;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 
 import animals.Animal;
 import animals.Bear;
@@ -33,7 +32,6 @@ public class Program {
 		System.out.println("********************************************");
 		System.out.println("\t\tChange Values");
 		System.out.println("********************************************");
-		Random rand = new Random();
 		for (Animal animal : animals) {
 			animal.setWeight(-857);
 			animal.move(new Point(1, 700));
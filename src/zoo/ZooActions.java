@@ -7,11 +7,12 @@ import food.IEdible;
 import diet.*;
 import mobility.Mobile;
 import mobility.Point;
+import simulation.RandomService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Scanner;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 
 /**
@@ -206,7 +207,7 @@ public class ZooActions {
 
         }
         int timestoeat = size/2;
-        Random rnd = new Random();
+        SplittableRandom rnd = RandomService.forName("ZooActions");
         for(int i=0;i<timestoeat;i++) {
             int dynmsize=zoo.size();
             int rnd1 = rnd.nextInt(dynmsize);